@@ -0,0 +1,26 @@
+package ananta.api.benchmarks;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import java.util.List;
+
+@Entity
+@Table(name = "bench_customers")
+public class BenchCustomer {
+    @Id
+    private Long id;
+    private String name;
+    
+    @OneToMany(mappedBy = "customer")
+    private List<BenchOrder> orders;
+    
+    protected BenchCustomer() {
+    }
+    
+    public BenchCustomer(final Long id, final String name) {
+        this.id = id;
+        this.name = name;
+    }
+}
@@ -0,0 +1,34 @@
+package ananta.api.benchmarks;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "bench_orders")
+public class BenchOrder {
+    @Id
+    private Long id;
+    private Integer amount;
+    @Column(name = "status_code")
+    private String status;
+    private String note;
+    
+    @ManyToOne
+    @JoinColumn(name = "customer_id")
+    private BenchCustomer customer;
+    
+    protected BenchOrder() {
+    }
+    
+    public BenchOrder(final Long id, final Integer amount, final String status, final String note, final BenchCustomer customer) {
+        this.id = id;
+        this.amount = amount;
+        this.status = status;
+        this.note = note;
+        this.customer = customer;
+    }
+}
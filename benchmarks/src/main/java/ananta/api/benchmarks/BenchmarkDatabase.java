@@ -0,0 +1,54 @@
+package ananta.api.benchmarks;
+
+import ananta.api.SearchCriteria;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/**
+ * Embedded H2 database shared by the benchmarks of a JVM, filled once with generated rows.
+ */
+public class BenchmarkDatabase {
+    public static final int CUSTOMER_COUNT = 1_000;
+    public static final int ORDER_COUNT = 100_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final String[] STATUSES = {"NEW", "PAID", "SHIPPED", "DONE"};
+    
+    private static EntityManagerFactory entityManagerFactory;
+    
+    private BenchmarkDatabase() {}
+    
+    public static synchronized EntityManagerFactory start() {
+        if (entityManagerFactory != null) {
+            return entityManagerFactory;
+        }
+        entityManagerFactory = Persistence.createEntityManagerFactory("benchmarks");
+        fill(entityManagerFactory);
+        SearchCriteria.init(entityManagerFactory);
+        return entityManagerFactory;
+    }
+    
+    private static void fill(final EntityManagerFactory entityManagerFactory) {
+        final EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            final BenchCustomer[] customers = new BenchCustomer[CUSTOMER_COUNT];
+            for (int i = 0; i < CUSTOMER_COUNT; ++i) {
+                customers[i] = new BenchCustomer((long) i + 1, "customer-" + i);
+                entityManager.persist(customers[i]);
+            }
+            for (int i = 0; i < ORDER_COUNT; ++i) {
+                final BenchCustomer customer = customers[i % CUSTOMER_COUNT];
+                entityManager.persist(new BenchOrder((long) i + 1, i % 500, STATUSES[i % STATUSES.length], "note of order " + i, customer));
+                if (i % BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ananta.api.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks twice: once without profiler for clean timings, then with the GC profiler
+ * to report allocation rate and bytes allocated per operation. Usual JMH arguments are accepted,
+ * for example a regex selecting benchmarks.
+ */
+public class BenchmarkRunner {
+    
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        
+        new Runner(new OptionsBuilder().parent(commandLineOptions).build()).run();
+        new Runner(new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,71 @@
+package ananta.api.benchmarks;
+
+import ananta.api.PreparedSearch;
+import ananta.api.SearchCriteria;
+import ananta.api.models.JoinPoint;
+import ananta.api.models.Joiner;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForNumber;
+import ananta.api.statics.ForString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building criteria without running them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CriteriaBuildingBenchmark {
+    private CriteriaBuilder cb;
+    private Joiner joiner;
+    
+    @Setup
+    public void setup() {
+        this.cb = BenchmarkDatabase.start().getCriteriaBuilder();
+        
+        this.joiner = new Joiner();
+        this.joiner.add(JoinPoint.builder().clazz(BenchOrder.class).tableName("bench_orders").build());
+        this.joiner.add(JoinPoint.builder().clazz(BenchCustomer.class).tableName("bench_customers").build());
+    }
+    
+    @Benchmark
+    public SearchCriteria<OrderView, BenchOrder> where() {
+        return SearchCriteria.<OrderView, BenchOrder>select(OrderView.class)
+            .from(BenchOrder.class)
+            .join(BenchCustomer.class)
+            .where("amount", ForNumber.LARGER_THAN_OR_EQUAL, 100)
+            .and("amount", ForNumber.LESS_THAN, 200)
+            .and("status_code", ForString.START_WITH, "SHIP")
+            .or("bench_customers.id", ForCollection.IN, List.of(1L, 2L, 3L, 4L, 5L));
+    }
+    
+    @Benchmark
+    public Joiner initJoinMap() {
+        this.joiner.initJoinMap(this.cb.createQuery(Object[].class));
+        return this.joiner;
+    }
+    
+    /**
+     * Builds the where clauses, then the select and count queries with their joins and folded predicates.
+     */
+    @Benchmark
+    public PreparedSearch<OrderView> prepare() {
+        return this.where().prepare();
+    }
+}
@@ -0,0 +1,56 @@
+package ananta.api.benchmarks;
+
+import ananta.api.SearchCriteria;
+import ananta.api.statics.ForNumber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Terminal operations against the embedded database, returning the given number of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionBenchmark {
+    
+    @Param({"1", "100", "100000"})
+    private long rows;
+    
+    @Setup
+    public void setup() {
+        BenchmarkDatabase.start();
+    }
+    
+    @Benchmark
+    public List<OrderView> toList() {
+        return SearchCriteria.<OrderView, BenchOrder>select(OrderView.class)
+            .from(BenchOrder.class)
+            .where("id", ForNumber.LESS_THAN_OR_EQUAL, this.rows)
+            .toList();
+    }
+    
+    @Benchmark
+    public Page<OrderView> toPage() {
+        return SearchCriteria.<OrderView, BenchOrder>select(OrderView.class)
+            .from(BenchOrder.class)
+            .where("id", ForNumber.LESS_THAN_OR_EQUAL, this.rows)
+            .withPage(1, (int) this.rows, "id", true)
+            .toPage();
+    }
+}
@@ -0,0 +1,8 @@
+package ananta.api.benchmarks;
+
+public class OrderView {
+    private Long id;
+    private Integer amount;
+    private String status;
+    private String note;
+}
@@ -0,0 +1,58 @@
+package ananta.api.benchmarks;
+
+import ananta.api.helpers.CollectionHelper;
+import ananta.api.helpers.TypeHelper;
+import ananta.api.mappers.RowMapper;
+import ananta.api.mappers.RowMappers;
+import ananta.api.models.EntityMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of one result row to a dto: the compiled mapper used by the terminal operations,
+ * against the map and Gson round trip it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+    private final Object[] row = {42L, 250, "SHIPPED", "note of order 42"};
+    private List<Field> fields;
+    private RowMapper<OrderView> mapper;
+    
+    @Setup
+    public void setup() {
+        this.fields = EntityMetadata.of(OrderView.class).getColumns();
+        this.mapper = RowMappers.of(OrderView.class, this.fields);
+    }
+    
+    @Benchmark
+    public OrderView compiledMapper() {
+        return this.mapper.map(this.row);
+    }
+    
+    @Benchmark
+    public OrderView gsonRoundTrip() {
+        final HashMap<String, Object> fieldValueMap = CollectionHelper.emptyMap();
+        for (int i = 0; i < this.fields.size(); ++i) {
+            fieldValueMap.put(this.fields.get(i).getName(), this.row[i]);
+        }
+        return TypeHelper.convertFromMapToObject(OrderView.class, fieldValueMap);
+    }
+}
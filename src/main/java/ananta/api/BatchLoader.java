@@ -0,0 +1,86 @@
+package ananta.api;
+
+import ananta.api.helpers.CollectionHelper;
+import ananta.api.helpers.TypeHelper;
+import ananta.api.models.QueryException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Collects lookups by key, like selectFrom(X).where("id", ForAll.EQUAL, key).findFirst(),
+ * then runs all of them as IN queries of at most chunkSize keys when dispatch is called.
+ * Rows are given back to each lookup by the value of their key.
+ * <br/>
+ * It is meant to live as long as a request: create it, load every key then dispatch.
+ * It is thread-safe, so lookups can be made from several threads.
+ */
+public class BatchLoader<K extends Serializable, T> {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    
+    private final Function<List<K>, Map<K, List<T>>> query;
+    private Map<K, CompletableFuture<Optional<T>>> pendingLookups = new LinkedHashMap<>();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    
+    BatchLoader(final Function<List<K>, Map<K, List<T>>> query) {
+        this.query = query;
+    }
+    
+    /**
+     * Maximum number of keys in one IN query. Default is 1000.
+     */
+    public synchronized BatchLoader<K, T> withChunkSize(final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new QueryException("Chunk size must be positive.");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+    
+    /**
+     * Queue a lookup. Lookups of the same key share the same result.
+     * @param key can't be null. Must have the same type as the column.
+     * @return the first item with the key, completed when dispatch is called.
+     */
+    public synchronized CompletableFuture<Optional<T>> load(final K key) {
+        TypeHelper.checkNull(key, "Key must not be null.");
+        return this.pendingLookups.computeIfAbsent(key, ignored -> new CompletableFuture<>());
+    }
+    
+    public synchronized int getPendingCount() {
+        return this.pendingLookups.size();
+    }
+    
+    /**
+     * Run every queued lookup. Lookups queued after this call wait for the next dispatch.
+     */
+    public void dispatch() {
+        final Map<K, CompletableFuture<Optional<T>>> lookups;
+        final int chunkSize;
+        synchronized (this) {
+            lookups = this.pendingLookups;
+            chunkSize = this.chunkSize;
+            this.pendingLookups = new LinkedHashMap<>();
+        }
+        
+        final List<K> keys = new ArrayList<>(lookups.keySet());
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            final List<K> chunk = keys.subList(from, Math.min(from + chunkSize, keys.size()));
+            try {
+                final Map<K, List<T>> itemsByKey = this.query.apply(new ArrayList<>(chunk));
+                chunk.forEach(key -> {
+                    final List<T> items = itemsByKey.get(key);
+                    lookups.get(key).complete(CollectionHelper.isEmpty(items) ? Optional.empty() : Optional.of(items.get(0)));
+                });
+            } catch (final RuntimeException exception) {
+                chunk.forEach(key -> lookups.get(key).completeExceptionally(exception));
+            }
+        }
+    }
+}
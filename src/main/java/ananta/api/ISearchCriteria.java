@@ -1,5 +1,7 @@
 package ananta.api;
 
+import ananta.api.models.CountStrategy;
+import ananta.api.models.KeysetSlice;
 import ananta.api.statics.ForAll;
 import ananta.api.statics.ForCollection;
 import ananta.api.statics.ForNumber;
@@ -7,11 +9,16 @@ import ananta.api.statics.ForString;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import javax.persistence.EntityManager;
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface ISearchCriteria<T, ROOT> {
     
@@ -31,6 +38,7 @@ public interface ISearchCriteria<T, ROOT> {
         Conditioner<T, ROOT> where(String key, ForAll action, Object value);
         Conditioner<T, ROOT> where(String key, ForString action, String value);
         <NUMBER extends Comparable<? super NUMBER>> Conditioner<T, ROOT> where(String key, ForNumber action, NUMBER value);
+        <NUMBER extends Comparable<? super NUMBER>> Conditioner<T, ROOT> where(String key, ForNumber action, NUMBER from, NUMBER to);
         Conditioner<T, ROOT> where(String key, ForCollection action, Collection<? extends Serializable> value);
     
     }
@@ -38,6 +46,8 @@ public interface ISearchCriteria<T, ROOT> {
     public static interface Conditioner<T, ROOT> {
         List<T> toList();
         Set<T> toSet();
+        Stream<T> toStream();
+        void forEach(Consumer<? super T> action);
         Page<T> toPage();
         Optional<T> findFirst();
     
@@ -58,27 +68,138 @@ public interface ISearchCriteria<T, ROOT> {
     ISearchCriteria<T, ROOT> where(String key, ForAll action, Object value);
     ISearchCriteria<T, ROOT> where(String key, ForString action, String value);
     <NUMBER extends Comparable<? super NUMBER>> ISearchCriteria<T, ROOT> where(String key, ForNumber action, NUMBER value);
+    
+    /**
+     * Keep rows whose column is in a range, using one predicate, so a following or can't split it.
+     * Values can be numbers or any comparable, like LocalDate or Instant.
+     * When only one of the values is given, the range has no bound on the other side.
+     * @param action BETWEEN or BETWEEN_HALF_OPEN.
+     */
+    <NUMBER extends Comparable<? super NUMBER>> ISearchCriteria<T, ROOT> where(String key, ForNumber action, NUMBER from, NUMBER to);
     ISearchCriteria<T, ROOT> where(String key, ForCollection action, Collection<? extends Serializable> value);
     
     ISearchCriteria<T, ROOT> and(String key, ForAll action, Object value);
     ISearchCriteria<T, ROOT> and(String key, ForString action, String value);
     <NUMBER extends Comparable<? super NUMBER>> ISearchCriteria<T, ROOT> and(String key, ForNumber action, NUMBER value);
+    <NUMBER extends Comparable<? super NUMBER>> ISearchCriteria<T, ROOT> and(String key, ForNumber action, NUMBER from, NUMBER to);
     ISearchCriteria<T, ROOT> and(String key, ForCollection action, Collection<? extends Serializable> value);
     
     ISearchCriteria<T, ROOT> or(String key, ForAll action, Object value);
     ISearchCriteria<T, ROOT> or(String key, ForString action, String value);
     <NUMBER extends Comparable<? super NUMBER>> ISearchCriteria<T, ROOT> or(String key, ForNumber action, NUMBER value);
+    <NUMBER extends Comparable<? super NUMBER>> ISearchCriteria<T, ROOT> or(String key, ForNumber action, NUMBER from, NUMBER to);
     ISearchCriteria<T, ROOT> or(String key, ForCollection action, Collection<? extends Serializable> value);
     
     
+    /**
+     * Load a relationship with the selected entities using a fetch join, so reading it doesn't run
+     * one more query per entity. The root entity must be selected, using selectFrom, and is then
+     * returned as is instead of a copy of its columns.
+     * <br/>
+     * Fetch joins are left joins. A fetched collection repeats root rows, so results are made distinct,
+     * toPage throws since the database can't page them and findFirst reads every row. Filtering on a
+     * fetched collection also filters its content.
+     * <br/>
+     * A fetched relationship is joined from the table it belongs to, tables joined after it are still
+     * joined from the last table joined with join.
+     * @param relation relationship field of the root, for example "customer", or of a joined table,
+     * for example "lines.product". It can also be the name of a table already joined.
+     */
+    ISearchCriteria<T, ROOT> fetch(String relation);
+    
+    /**
+     * Only use a joined table to filter. It is joined in a correlated exists subquery instead of the
+     * query, so a row matching several related rows, for example a customer with several orders, is
+     * returned once, and results don't need to be made distinct. Tables joined from it are in the
+     * subquery too. They can't be selected, sorted or fetched.
+     * <br/>
+     * Every where clause goes in the subquery, so clauses on different related rows are matched
+     * against the same related row, as they are with a join.
+     * @param tableName name of a table already joined.
+     */
+    ISearchCriteria<T, ROOT> filterOnly(String tableName);
+    
+    /**
+     * Load the selected entities with the named entity graph, given as load graph hint.
+     * The root entity must be selected, using selectFrom.
+     */
+    ISearchCriteria<T, ROOT> withEntityGraph(String graphName);
+    
     ISearchCriteria<T, ROOT> withPage(Pageable page);
     ISearchCriteria<T, ROOT> withPage(int pageNumber, int size, String orderBy, boolean isAscending);
     
+    /**
+     * How toPage gets the total number of rows. Default is {@link CountStrategy#exact()}.
+     */
+    ISearchCriteria<T, ROOT> withCountStrategy(CountStrategy countStrategy);
+    
+    /**
+     * Cache the results of toList, toPage, count and existAny in the shared SearchCache for the
+     * given time. Criteria with the same return type, tables, filters and page share results.
+     * Register SearchCacheListener on the entities to evict results when the tables they read change.
+     * <br/>
+     * Cached items are shared by every caller, so toList and toPage only cache immutable dtos, whose
+     * fields are all final, and throw for entities or other return types.
+     */
+    ISearchCriteria<T, ROOT> cached(Duration ttl);
+    
+    /**
+     * Run the terminal operations of this criteria on the entity manager, for example the one
+     * bound to the current thread or transaction, instead of the one given by init.
+     * The entity manager is not closed by the criteria.
+     */
+    ISearchCriteria<T, ROOT> using(EntityManager entityManager);
+    
+    /**
+     * Number of rows the JDBC driver fetches per round trip while streaming. Default is 1000.
+     */
+    ISearchCriteria<T, ROOT> withFetchSize(int fetchSize);
+    
+    /**
+     * Clear the persistence context after every given number of streamed rows, so loaded
+     * entities don't pile up in it. Projections to dto are not managed, so it is only needed
+     * when the query loads entities. Default is 0, which means never clear.
+     */
+    ISearchCriteria<T, ROOT> clearEvery(int rows);
+    
     List<T> toList();
     Set<T> toSet();
+    
+    /**
+     * Fetch rows lazily using the fetch size and map each of them when it is consumed.
+     * The stream holds an open cursor, so it must be closed, for example using try-with-resources.
+     * An IN clause larger than the chunk size of SearchCriteria.configInChunkSize is streamed chunk by chunk.
+     */
+    Stream<T> toStream();
+    
+    /**
+     * Stream every row to the action then close the stream.
+     */
+    void forEach(Consumer<? super T> action);
     Page<T> toPage();
+    
+    /**
+     * Get the slice after the cursor using keyset pagination. Rows are ordered by the sort of the
+     * page then by the id of the root table, and the next slice starts right after the last row,
+     * so the database never has to skip rows no matter how deep the slice is. Page number is ignored.
+     * Sort keys must not be null.
+     * @param cursor cursor of the previous slice. Null to get the first slice.
+     */
+    KeysetSlice<T> toSlice(String cursor);
+    
     Optional<T> findFirst();
     
     Long count();
     boolean existAny();
+    
+    /*
+     * Asynchronous versions of the terminal operations. Each of them runs on its own entity manager
+     * on the executor configured with SearchCriteria.configExecutor, so independent criteria can
+     * wait for the database at the same time. A criteria must not run several operations at once.
+     */
+    
+    CompletableFuture<List<T>> toListAsync();
+    CompletableFuture<Page<T>> toPageAsync();
+    CompletableFuture<Long> countAsync();
+    CompletableFuture<Boolean> existAnyAsync();
 }
@@ -0,0 +1,201 @@
+package ananta.api;
+
+import ananta.api.helpers.CollectionHelper;
+import ananta.api.helpers.TypeHelper;
+import ananta.api.mappers.Projection;
+import ananta.api.models.EntityManagerProvider;
+import ananta.api.models.QueryException;
+import ananta.api.models.WhereClause;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Criteria whose query is built once, with every where value turned into a parameter.
+ * Executions only bind values, so the provider and the database see the same statement
+ * every time and can reuse its plan.
+ * <br/>
+ * It is immutable: bind returns a new search sharing the same query. It runs on the entity manager given by
+ * using, or else on one acquired from the provider given to init for every execution. Entity managers are not
+ * thread-safe, so it can only be shared between threads when it gets one per execution, which is not the case
+ * after init(EntityManager) or using.
+ */
+public class PreparedSearch<T> {
+    private final Projection<T> projection;
+    private final CriteriaQuery<Object[]> query;
+    private final CriteriaQuery<Long> countQuery;
+    private final Map<String, Parameter> parameters;
+    private final Map<String, Object> values;
+    private final Pageable page;
+    private final EntityManagerProvider entityManagerProvider;
+    private final EntityManager entityManager;
+    
+    PreparedSearch(
+        final Projection<T> projection,
+        final CriteriaQuery<Object[]> query,
+        final CriteriaQuery<Long> countQuery,
+        final Map<String, Parameter> parameters,
+        final Pageable page,
+        final EntityManagerProvider entityManagerProvider,
+        final EntityManager entityManager
+    ) {
+        this.projection = projection;
+        this.query = query;
+        this.countQuery = countQuery;
+        this.parameters = Collections.unmodifiableMap(parameters);
+        this.values = parameters.entrySet().stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().getDefaultValue()));
+        this.page = page;
+        this.entityManagerProvider = entityManagerProvider;
+        this.entityManager = entityManager;
+    }
+    
+    private PreparedSearch(final PreparedSearch<T> search, final Map<String, Object> values) {
+        this.projection = search.projection;
+        this.query = search.query;
+        this.countQuery = search.countQuery;
+        this.parameters = search.parameters;
+        this.values = Collections.unmodifiableMap(values);
+        this.page = search.page;
+        this.entityManagerProvider = search.entityManagerProvider;
+        this.entityManager = search.entityManager;
+    }
+    
+    /**
+     * Name of parameters is the key of its where clause using field names, for example "age" or
+     * "orders.amount". When a key is used several times, the next ones are suffixed with _2, _3...
+     * The end of a range is another parameter, suffixed with _to.
+     */
+    public Set<String> getParameterNames() {
+        return this.parameters.keySet();
+    }
+    
+    /**
+     * Get a search running with another value for a parameter. Parameters which are not bound
+     * keep the value given when the criteria was prepared.
+     * @param name can't be null.
+     * @param value can't be null. Same type as the value the criteria was prepared with, or a collection
+     * of values of that type for IN clauses.
+     * @throws QueryException if the parameter doesn't exist or the value is not of its type.
+     */
+    public PreparedSearch<T> bind(final String name, final Object value) {
+        TypeHelper.checkNull(name, "Parameter name must not be null.");
+        TypeHelper.checkNull(value, "Parameter value must not be null.");
+        if (!this.parameters.containsKey(name)) {
+            throw new QueryException("Parameter %s not found. Parameters are %s", name, this.parameters.keySet());
+        }
+        this.parameters.get(name).checkValue(name, value);
+        final Map<String, Object> values = CollectionHelper.emptyMap();
+        values.putAll(this.values);
+        values.put(name, value);
+        return new PreparedSearch<>(this, values);
+    }
+    
+    public List<T> toList() {
+        final List<Object[]> tuple = this.execute(em -> {
+            final TypedQuery<Object[]> typedQuery = this.bindTo(em.createQuery(this.query));
+            if (this.page != null) {
+                typedQuery.setFirstResult((int) this.page.getOffset()).setMaxResults(this.page.getPageSize());
+            }
+            return typedQuery.getResultList();
+        });
+        return this.projection.mapAll(tuple);
+    }
+    
+    public Optional<T> findFirst() {
+        final List<Object[]> tuple = this.execute(em -> this.bindTo(em.createQuery(this.query)).setMaxResults(1).getResultList());
+        return tuple.stream().findFirst().map(this.projection::map);
+    }
+    
+    public Long count() {
+        return this.execute(em -> this.bindTo(em.createQuery(this.countQuery)).getSingleResult());
+    }
+    
+    private <R> TypedQuery<R> bindTo(final TypedQuery<R> typedQuery) {
+        this.parameters.forEach((name, parameter) -> {
+            final Object value = parameter.getClause().toParameterValue(this.values.get(name));
+            typedQuery.setParameter(parameter.getName(), value);
+        });
+        return typedQuery;
+    }
+    
+    private <R> R execute(final Function<EntityManager, R> action) {
+        if (this.entityManager != null) {
+            return action.apply(this.entityManager);
+        }
+        final EntityManager entityManager = this.entityManagerProvider.acquire();
+        try {
+            return action.apply(entityManager);
+        } finally {
+            this.entityManagerProvider.release(entityManager);
+        }
+    }
+    
+    /**
+     * Where clause whose value is bound to a parameter of the query.
+     */
+    static final class Parameter {
+        private final String name;
+        private final WhereClause clause;
+        private final Object defaultValue;
+        
+        Parameter(final String name, final WhereClause clause, final Object defaultValue) {
+            this.name = name;
+            this.clause = clause;
+            this.defaultValue = defaultValue;
+        }
+        
+        String getName() {
+            return name;
+        }
+        
+        WhereClause getClause() {
+            return clause;
+        }
+        
+        Object getDefaultValue() {
+            return defaultValue;
+        }
+        
+        /**
+         * The query parameter is typed with the class of the default value, and a collection takes values
+         * of the class of its first value.
+         */
+        void checkValue(final String parameterName, final Object value) {
+            final Class<?> expectedType = expectedTypeOf(this.defaultValue);
+            if (!(this.defaultValue instanceof Collection)) {
+                checkType(parameterName, value, expectedType);
+                return;
+            }
+            if (!(value instanceof Collection)) {
+                throw new QueryException("Parameter %s must be a collection, not %s.", parameterName, value.getClass().getSimpleName());
+            }
+            for (final Object item : (Collection<?>) value) {
+                checkType(parameterName, item, expectedType);
+            }
+        }
+        
+        private static Class<?> expectedTypeOf(final Object defaultValue) {
+            if (defaultValue instanceof Collection) {
+                return ((Collection<?>) defaultValue).stream().filter(Objects::nonNull).findFirst().map(Object::getClass).orElse(null);
+            }
+            return defaultValue.getClass();
+        }
+        
+        private static void checkType(final String parameterName, final Object value, final Class<?> expectedType) {
+            if (value != null && expectedType != null && !expectedType.isInstance(value)) {
+                throw new QueryException("Parameter %s must be a %s, not %s.", parameterName, expectedType.getSimpleName(), value.getClass().getSimpleName());
+            }
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package ananta.api;
 
 import ananta.api.helpers.*;
+import ananta.api.mappers.Projection;
+import ananta.api.metrics.SearchEvent;
+import ananta.api.metrics.SearchMetrics;
+import ananta.api.metrics.SearchPhase;
+import ananta.api.metrics.SearchRowsMapped;
+import ananta.api.metrics.SearchTimer;
 import ananta.api.models.*;
 import ananta.api.statics.ForAll;
 import ananta.api.statics.ForCollection;
@@ -12,49 +18,174 @@ import org.springframework.data.domain.*;
 import javax.persistence.*;
 import javax.persistence.criteria.*;
 import java.io.Serializable;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
-    private static EntityManager em;
-    private static Map<String, Class<?>> entities;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int DEFAULT_IN_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_CHUNK_PARALLELISM = 4;
+    private static final List<String> FETCH_SIZE_HINTS = List.of("org.hibernate.fetchSize", "eclipselink.jdbc.fetch-size", "openjpa.FetchPlan.FetchBatchSize");
+    private static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+    private static final String PASS_DISTINCT_THROUGH_HINT = "hibernate.query.passDistinctThrough";
+    
+    private static volatile EntityManagerProvider entityManagerProvider;
+    private static volatile Map<String, Class<?>> entities;
+    private static volatile Executor executor;
+    private static volatile SearchMetrics metrics = SearchMetrics.noop();
+    private static volatile int inChunkSize = DEFAULT_IN_CHUNK_SIZE;
+    private static volatile int chunkParallelism = DEFAULT_CHUNK_PARALLELISM;
+    private static volatile IgnoreCaseStrategy ignoreCaseStrategy = IgnoreCaseStrategy.LOWER;
     private final CriteriaBuilder cb;
     private final CriteriaQuery<Object[]> query;
     private final Class<T> returnType;
     private final List<QueryClause> predicates = CollectionHelper.emptyList();
-    private final ananta.api.models.Joiner joiner = new ananta.api.models.Joiner();
+    private final ananta.api.models.Joiner joiner;
     private Pageable page;
+    private CountStrategy countStrategy = CountStrategy.exact();
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int clearEvery;
+    private Duration cacheTtl;
+    private EntityManager entityManager;
+    private String entityGraph;
     
+    /**
+     * Run every query on the entity manager. Entity managers are not thread-safe, so queries must not
+     * run concurrently. Use {@link #init(EntityManagerFactory)} to run them in parallel.
+     */
     public static void init(final EntityManager entityManager) {
         TypeHelper.checkNull(entityManager, "Entity manager should not be null.");
+        init(EntityManagerProvider.shared(entityManager));
+    }
+    
+    /**
+     * Run every query on its own entity manager created from the factory, and closed right after
+     * the query is done. Criteria of different threads then never share a persistence context.
+     */
+    public static void init(final EntityManagerFactory entityManagerFactory) {
+        TypeHelper.checkNull(entityManagerFactory, "Entity manager factory should not be null.");
+        init(EntityManagerProvider.perCall(entityManagerFactory));
+    }
     
-        final Set<Class<?>> entityClasses = entityManager.getMetamodel()
+    public static void init(final EntityManagerProvider provider) {
+        TypeHelper.checkNull(provider, "Entity manager provider should not be null.");
+    
+        final Set<Class<?>> entityClasses = provider.getMetamodel()
             .getEntities()
             .stream()
             .map(entity -> {
-                final List<Field> fields = ReflectionHelper.getNonStaticFieldsOf(entity.getJavaType());
-                final List<Class<?>> classes = fields.stream().filter(CriteriaHelper::isMappingColumn).map(CriteriaHelper::getEntityOf).collect(Collectors.toList());
+                final EntityMetadata metadata = EntityMetadata.of(entity.getJavaType());
+                final List<Class<?>> classes = metadata.getRelationshipFields().stream().map(CriteriaHelper::getEntityOf).collect(Collectors.toList());
                 classes.add(entity.getJavaType());
                 return classes;
             })
             .flatMap(Collection::stream)
             .collect(Collectors.toSet());
+        EntityMetadata.register(entityClasses);
     
-        em = entityManager;
-        entities = CollectionHelper.mapOf(entityClasses, CriteriaHelper::tableNameOf);
+        entities = Collections.unmodifiableMap(CollectionHelper.mapOf(entityClasses, CriteriaHelper::tableNameOf));
+        entityManagerProvider = provider;
     }
 
+    /**
+     * Executor running the asynchronous operations. By default, a virtual thread is started per
+     * operation when the JVM supports it, otherwise operations run on a cached thread pool.
+     */
+    public static void configExecutor(final Executor asyncExecutor) {
+        TypeHelper.checkNull(asyncExecutor, "Executor should not be null.");
+        executor = asyncExecutor;
+    }
+    
+    private static Executor getExecutor() {
+        if (executor == null) {
+            synchronized (SearchCriteria.class) {
+                if (executor == null) {
+                    executor = ExecutorHelper.newBlockingTaskExecutor("search-criteria-");
+                }
+            }
+        }
+        return executor;
+    }
+    
+    /**
+     * Listener told about the phase timings and row count of every query run by toList, toPage,
+     * findFirst, count and existAny. Events are ignored by default.
+     */
+    public static void configMetrics(final SearchMetrics searchMetrics) {
+        TypeHelper.checkNull(searchMetrics, "Metrics should not be null.");
+        metrics = searchMetrics;
+    }
+    
+    /**
+     * Maximum number of values of one IN list. A larger IN clause that every row must match is split into
+     * chunks, and the query runs once per chunk, at the same time when each chunk can have its own entity
+     * manager. When a row could be read by several chunks, the query runs once and the clause is written
+     * as IN lists of at most this size joined by or, NOT_IN lists joined by and. Default is 1000.
+     */
+    public static void configInChunkSize(final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new QueryException("Chunk size must be positive.");
+        }
+        inChunkSize = chunkSize;
+    }
+    
+    /**
+     * Maximum number of chunks of one query running at the same time, each on its own entity manager and
+     * connection. The caller runs one of them, the executor the others. Default is 4.
+     */
+    public static void configChunkParallelism(final int parallelism) {
+        if (parallelism <= 0) {
+            throw new QueryException("Chunk parallelism must be positive.");
+        }
+        chunkParallelism = parallelism;
+    }
+    
+    /**
+     * How the ignore case actions of ForString compare strings. Default is {@link IgnoreCaseStrategy#LOWER}.
+     * It applies to clauses added after the call.
+     */
+    public static void configIgnoreCase(final IgnoreCaseStrategy strategy) {
+        TypeHelper.checkNull(strategy, "Ignore case strategy should not be null.");
+        ignoreCaseStrategy = strategy;
+    }
+    
     public static void configGson(final Gson gson) {
         TypeHelper.checkNull(gson, "gson should not be null.");
         TypeHelper.configGson(gson);
     }
     
     private SearchCriteria(final Class<T> clazz) {
-        TypeHelper.checkNull(em, "Entity manager have not been initialized. Please call init method.");
-        this.cb = em.getCriteriaBuilder();
+        TypeHelper.checkNull(entityManagerProvider, "Entity manager have not been initialized. Please call init method.");
+        this.cb = entityManagerProvider.getCriteriaBuilder();
         this.query = this.cb.createQuery(Object[].class);
         this.returnType = clazz;
+        this.joiner = new ananta.api.models.Joiner();
+    }
+    
+    /**
+     * Copy a criteria, with other where clauses.
+     */
+    private SearchCriteria(final SearchCriteria<T, ROOT> criteria, final List<QueryClause> predicates) {
+        this.cb = criteria.cb;
+        this.query = this.cb.createQuery(Object[].class);
+        this.returnType = criteria.returnType;
+        this.joiner = criteria.joiner.copy();
+        this.predicates.addAll(predicates);
+        this.page = criteria.page;
+        this.countStrategy = criteria.countStrategy;
+        this.fetchSize = criteria.fetchSize;
+        this.clearEvery = criteria.clearEvery;
+        this.entityManager = criteria.entityManager;
+        this.entityGraph = criteria.entityGraph;
     }
 
     public static <T, R> SearchCriteria<T, R> select(final Class<T> clazz) {
@@ -70,7 +201,7 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
     
     @Override
     public SearchCriteria<T, ROOT> from(final Class<ROOT> clazz) {
-        final String tableName = CriteriaHelper.getTableNameOf(clazz);
+        final String tableName = this.getTableNameOf(clazz);
         final JoinPoint joinPoint = JoinPoint.builder().clazz(clazz).tableName(tableName).build();
         this.joiner.add(joinPoint);
         return this;
@@ -100,13 +231,19 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
         return this.from(rootClass, as);
     }
     
+    private String getTableNameOf(final Class<?> clazz) {
+        return EntityMetadata.of(clazz)
+            .getTableName()
+            .orElseThrow(() -> new QueryException("Your class %s must annotated with @Table annotation.", clazz.getSimpleName()));
+    }
+    
     private Class<?> getTableClass(final String tableName) {
         return entities.get(tableName);
     }
     
     @Override
     public SearchCriteria<T, ROOT> join(final Class<?> clazz) {
-        final String tableName = CriteriaHelper.getTableNameOf(clazz);
+        final String tableName = this.getTableNameOf(clazz);
         final JoinPoint joinPoint = JoinPoint.builder().tableName(tableName).clazz(clazz).build();
         this.joiner.add(joinPoint);
         
@@ -144,30 +281,9 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
     }
     
     private Optional<Field> getFieldWithJoinTable(final String tableName) {
-        final Class<?> lastClazz = this.joiner.getLast().getClazz();
-        return ReflectionHelper
-            .getNonStaticFieldsOf(lastClazz).stream()
-            .filter(field -> {
-                if (Objects.equals(field.getName(), tableName)) {
-                    return true;
-                }
-                final Optional<JoinTable> joinTableAnnotation = ReflectionHelper.getAnnotation(JoinTable.class, field);
-                if (joinTableAnnotation.isPresent()) {
-                    return Objects.equals(joinTableAnnotation.get().name(), tableName);
-                }
-                
-                final Optional<JoinColumn> joinColumnAnnotation = ReflectionHelper.getAnnotation(JoinColumn.class, field);
-                if (joinColumnAnnotation.isPresent()) {
-                    return Objects.equals(joinColumnAnnotation.get().name(), tableName);
-                }
-                
-                final Optional<ManyToMany> manyToManyAnnotation = ReflectionHelper.getAnnotation(ManyToMany.class, field);
-                if (manyToManyAnnotation.isPresent()) {
-                    return Objects.equals(manyToManyAnnotation.get().mappedBy(), tableName);
-                }
-                return false;
-            })
-            .findFirst();
+        return this.joiner.getLast()
+            .getType()
+            .flatMap(lastClazz -> EntityMetadata.of(lastClazz).getJoinTableField(tableName));
     }
     
     @Override
@@ -187,32 +303,29 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
     }
     
     private TableJoin getTableJoinOf(final String key) {
-        final TableJoin table = TableJoin.of(key);
-        
+        return this.getTableJoinOf(TableJoin.of(key));
+    }
+    
+    /**
+     * @return the table with the field name of its column, which may be given as @Column name.
+     */
+    private TableJoin getTableJoinOf(final TableJoin table) {
+        return table.withColumn(this.getColumnFieldOf(table).getName());
+    }
+    
+    private Field getColumnFieldOf(final TableJoin table) {
         final JoinPoint joinPoint = this.joiner
             .getJoinPoint(table.getName())
             .orElseThrow(() -> new QueryException("Can't find table %s", table.getName()));
     
         final Class<?> clazz = joinPoint.getType().orElseThrow(() -> new NullPointerException("Join point have no class inside."));
     
-        final String fieldName = this.getJoinField(clazz, table.getColumn())
-            .map(Field::getName)
+        return this.getJoinField(clazz, table.getColumn())
             .orElseThrow(() -> new QueryException("Can't find column %s in %s", table.getColumn(), joinPoint.getTableName()));
-        
-        return table.withColumn(fieldName);
     }
     
     private Optional<Field> getJoinField(final Class<?> clazz, final String column) {
-        return ReflectionHelper
-            .getNonStaticFieldsOf(clazz).stream()
-            .filter(field -> {
-                if (Objects.equals(field.getName(), column)) {
-                    return true;
-                }
-                return ReflectionHelper.getAnnotation(Column.class, field)
-                    .map(col -> Objects.equals(col.name(), column))
-                    .orElse(false);
-            }).findFirst();
+        return EntityMetadata.of(clazz).getColumnField(column);
     }
     
     private String getTableNameFrom(final TableJoin table) {
@@ -228,6 +341,7 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
                 .table(this.getTableJoinOf(key))
                 .action(action)
                 .value(value)
+                .ignoreCaseStrategy(ignoreCaseStrategy)
                 .build();
             this.predicates.add(QueryClause.builder().isAndClause(true).clause(clause).build());
             
@@ -237,6 +351,7 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
     @Override
     public <NUMBER extends Comparable<? super NUMBER>> SearchCriteria<T, ROOT> where(final String key, final ForNumber action, final NUMBER value) {
         this.checkKeyAndAction(key, action);
+        this.checkNotRange(action);
         if (value != null) {
             final WhereClause clause = WhereClauseForNumber.builder()
                 .table(this.getTableJoinOf(key))
@@ -248,6 +363,40 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
         }
         return this;
     }
+    
+    @Override
+    public <NUMBER extends Comparable<? super NUMBER>> SearchCriteria<T, ROOT> where(final String key, final ForNumber action, final NUMBER from, final NUMBER to) {
+        this.checkKeyAndAction(key, action);
+        this.getRangeClauseOf(key, action, from, to).ifPresent(clause -> this.predicates.add(QueryClause.builder().isAndClause(true).clause(clause).build()));
+        return this;
+    }
+    
+    private void checkNotRange(final ForNumber action) {
+        if (action.isRange()) {
+            throw new QueryException("%s needs two values, from and to.", action);
+        }
+    }
+    
+    /**
+     * @return the range, or its only bound if one of the values is null. Empty if both are null.
+     */
+    private Optional<WhereClause> getRangeClauseOf(final String key, final ForNumber action, final Comparable<?> from, final Comparable<?> to) {
+        if (!action.isRange()) {
+            throw new QueryException("%s needs one value, only BETWEEN and BETWEEN_HALF_OPEN take two.", action);
+        }
+        if (from == null && to == null) {
+            return Optional.empty();
+        }
+        final WhereClauseForNumber.Builder clause = WhereClauseForNumber.builder().table(this.getTableJoinOf(key));
+        if (to == null) {
+            return Optional.of(clause.action(ForNumber.LARGER_THAN_OR_EQUAL).value(from).build());
+        }
+        if (from == null) {
+            return Optional.of(clause.action(action == ForNumber.BETWEEN ? ForNumber.LESS_THAN_OR_EQUAL : ForNumber.LESS_THAN).value(to).build());
+        }
+        return Optional.of(clause.action(action).value(from).toValue(to).build());
+    }
+    
     @Override
     public SearchCriteria<T, ROOT> where(final String key, final ForCollection action, final Collection<? extends Serializable> value) {
         this.checkKeyAndAction(key, action);
@@ -282,6 +431,10 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
         return this.where(key, action, value);
     }
     @Override
+    public <NUMBER extends Comparable<? super NUMBER>> SearchCriteria<T, ROOT> and(final String key, final ForNumber action, final NUMBER from, final NUMBER to) {
+        return this.where(key, action, from, to);
+    }
+    @Override
     public SearchCriteria<T, ROOT> and(final String key, final ForCollection action, final Collection<? extends Serializable> value) {
         return this.where(key, action, value);
     }
@@ -310,6 +463,7 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
                 .table(this.getTableJoinOf(key))
                 .action(action)
                 .value(value)
+                .ignoreCaseStrategy(ignoreCaseStrategy)
                 .build();
 
             this.predicates.add(QueryClause.builder().isAndClause(false).clause(clause).build());
@@ -320,6 +474,7 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
     @Override
     public <NUMBER extends Comparable<? super NUMBER>> SearchCriteria<T, ROOT> or(final String key, final ForNumber action, final NUMBER value) {
         this.checkKeyAndAction(key, action);
+        this.checkNotRange(action);
         
         if (value != null) {
             final WhereClause clause = WhereClauseForNumber.builder()
@@ -332,6 +487,13 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
         return this;
     }
     
+    @Override
+    public <NUMBER extends Comparable<? super NUMBER>> SearchCriteria<T, ROOT> or(final String key, final ForNumber action, final NUMBER from, final NUMBER to) {
+        this.checkKeyAndAction(key, action);
+        this.getRangeClauseOf(key, action, from, to).ifPresent(clause -> this.predicates.add(QueryClause.builder().isAndClause(false).clause(clause).build()));
+        return this;
+    }
+    
     @Override
     public SearchCriteria<T, ROOT> or(final String key, final ForCollection action, final Collection<? extends Serializable> value) {
         this.checkKeyAndAction(key, action);
@@ -347,6 +509,65 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
         return this;
     }
     
+    @Override
+    public SearchCriteria<T, ROOT> fetch(final String relation) {
+        TypeHelper.checkNull(relation, "Relation must not be null.");
+        this.checkRootSelected("Fetch joins");
+        
+        final boolean isDeclared = this.joiner.getJoinPoints().stream().anyMatch(joinPoint -> joinPoint.getTableName().equals(relation));
+        if (isDeclared) {
+            this.joiner.fetch(relation);
+            return this;
+        }
+        
+        final TableJoin table = TableJoin.of(relation);
+        final JoinPoint parent = this.joiner
+            .getJoinPoint(table.getName())
+            .orElseThrow(() -> new QueryException("Can't find table %s", table.getName()));
+        final Field field = parent.getType()
+            .flatMap(parentClass -> EntityMetadata.of(parentClass).getJoinTableField(table.getColumn()))
+            .orElseThrow(() -> new QueryException("Relation %s not found.", relation));
+        
+        final JoinPoint joinPoint = JoinPoint.builder()
+            .tableName(field.getName())
+            .field(field)
+            .parentTableName(parent.getTableName())
+            .isFetched(true)
+            .build();
+        this.joiner.add(joinPoint);
+        return this;
+    }
+    
+    @Override
+    public SearchCriteria<T, ROOT> filterOnly(final String tableName) {
+        TypeHelper.checkNull(tableName, "Table name must not be null.");
+        this.joiner.filterOnly(tableName);
+        return this;
+    }
+    
+    @Override
+    public SearchCriteria<T, ROOT> withEntityGraph(final String graphName) {
+        TypeHelper.checkNull(graphName, "Entity graph name must not be null.");
+        this.checkRootSelected("Entity graphs");
+        this.entityGraph = graphName;
+        return this;
+    }
+    
+    private void checkRootSelected(final String feature) {
+        final JoinPoint rootJoin = this.joiner.getRootJoin();
+        if (rootJoin == null || !this.returnType.equals(rootJoin.getClazz())) {
+            throw new QueryException("%s need the root entity to be selected, please use selectFrom.", feature);
+        }
+    }
+    
+    /**
+     * @return true if the root entities themselves are selected, with their fetch joins and entity
+     * graph, instead of their columns.
+     */
+    private boolean isEntityQuery() {
+        return this.entityGraph != null || this.joiner.hasFetch();
+    }
+    
     @Override
     public SearchCriteria<T, ROOT> withPage(final Pageable page) {
         this.page = page;
@@ -367,126 +588,1110 @@ public class SearchCriteria<T, ROOT> implements ISearchCriteria<T, ROOT> {
         return this;
     }
     
+    @Override
+    public SearchCriteria<T, ROOT> withCountStrategy(final CountStrategy countStrategy) {
+        TypeHelper.checkNull(countStrategy, "Count strategy must not be null.");
+        this.countStrategy = countStrategy;
+        return this;
+    }
+    
+    @Override
+    public SearchCriteria<T, ROOT> using(final EntityManager entityManager) {
+        TypeHelper.checkNull(entityManager, "Entity manager should not be null.");
+        this.entityManager = entityManager;
+        return this;
+    }
+    
+    @Override
+    public SearchCriteria<T, ROOT> withFetchSize(final int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new QueryException("Fetch size must be positive.");
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+    
+    @Override
+    public SearchCriteria<T, ROOT> clearEvery(final int rows) {
+        if (rows < 0) {
+            throw new QueryException("Rows must not be negative.");
+        }
+        this.clearEvery = rows;
+        return this;
+    }
+    
+    @Override
+    public SearchCriteria<T, ROOT> cached(final Duration ttl) {
+        TypeHelper.checkNull(ttl, "Time to live must not be null.");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new QueryException("Time to live must be positive.");
+        }
+        this.cacheTtl = ttl;
+        return this;
+    }
+    
     @Override
     public List<T> toList() {
-        final List<String> fields = this.getSelectFields();
+        if (!this.canMatch()) {
+            return CollectionHelper.emptyList();
+        }
+        if (this.cacheTtl == null) {
+            return this.queryList();
+        }
+        this.checkCacheable("toList");
+        final List<T> items = SearchCache.get(this.getCacheKeyOf("list"), this.cacheTtl, this.getEntities(), () -> List.copyOf(this.queryList()));
+        return new ArrayList<>(items);
+    }
+    
+    private List<T> queryList() {
+        final Optional<List<SearchCriteria<T, ROOT>>> chunks = this.getChunks();
+        if (chunks.isPresent()) {
+            return this.runChunks(chunks.get(), SearchCriteria::queryList).stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+        if (this.isEntityQuery()) {
+            final SearchTimer timer = SearchTimer.start();
+            final List<T> items = this.queryEntities(timer, false, 0, -1);
+            this.report(timer, "list", this.joiner.getRootJoin().getTableName(), false, items.size());
+            return items;
+        }
+        
+        final SearchTimer timer = SearchTimer.start();
+        final Projection<T> projection = this.getProjection();
+        final Optional<List<T>> constructedItems = this.queryConstructed(timer, projection, false, 0, -1);
+        if (constructedItems.isPresent()) {
+            this.report(timer, "list", this.getConstructorJpql(projection), false, constructedItems.get().size());
+            return constructedItems.get();
+        }
         this.joiner.initJoinMap(this.query);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
 
-        this.query.multiselect(this.getSelections(fields));
+        this.query.multiselect(this.getSelections(projection));
         this.getPredicate(this.cb).ifPresent(this.query::where);
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        final List<Object[]> tuple = this.execute(em -> em.createQuery(this.query).getResultList());
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        
+        final List<T> items = this.mapRows(tuple, projection);
+        timer.lap(SearchPhase.ROW_MAPPING);
+        
+        this.report(timer, "list", this.getSelectionJpql(projection), false, tuple.size());
+        return items;
+    }
+    
+    /**
+     * Same as toList but items are grouped by the value of a column, which doesn't need to be
+     * part of the return type.
+     * @param key column to group by, "column" or "table.column".
+     * @param keyType type of the column values.
+     */
+    <K> Map<K, List<T>> toListGroupedBy(final String key, final Class<K> keyType) {
+        this.checkNoNestedCollection("toListGroupedBy");
+        final TableJoin keyTable = this.getTableJoinOf(key);
+        if (!this.canMatch()) {
+            return new LinkedHashMap<>();
+        }
+        final Optional<List<SearchCriteria<T, ROOT>>> chunks = this.getChunks();
+        if (chunks.isPresent()) {
+            final Map<K, List<T>> itemsByKey = new LinkedHashMap<>();
+            for (final Map<K, List<T>> chunkItemsByKey : this.runChunks(chunks.get(), chunk -> chunk.toListGroupedBy(key, keyType))) {
+                chunkItemsByKey.forEach((keyValue, items) -> itemsByKey.computeIfAbsent(keyValue, ignored -> CollectionHelper.emptyList()).addAll(items));
+            }
+            return itemsByKey;
+        }
+        final Projection<T> projection = this.getProjection();
+        this.joiner.initJoinMap(this.query);
+        
+        final List<Selection<?>> selections = this.getSelections(projection);
+        selections.add(this.getKeyPathOf(keyTable, keyType));
+        this.query.multiselect(selections);
+        this.getPredicate(this.cb).ifPresent(this.query::where);
+        
+        final List<Object[]> tuple = this.execute(em -> em.createQuery(this.query).getResultList());
+        final Map<K, List<T>> itemsByKey = new LinkedHashMap<>();
+        for (final Object[] objectValues : tuple) {
+            final K keyValue = keyType.cast(objectValues[projection.getColumns().size()]);
+            itemsByKey.computeIfAbsent(keyValue, ignored -> CollectionHelper.emptyList()).add(projection.map(objectValues));
+        }
+        return itemsByKey;
+    }
+    
+    /**
+     * Get the path of the column items are grouped by, checking that its values are of the key type.
+     */
+    private Path<?> getKeyPathOf(final TableJoin keyTable, final Class<?> keyType) {
+        final Path<?> keyPath = this.getPathOf(keyTable);
+        final Class<?> columnType = MethodType.methodType(keyPath.getJavaType()).wrap().returnType();
+        if (!keyType.isAssignableFrom(columnType)) {
+            throw new QueryException("Key %s is of type %s, not %s.", keyTable.getFingerprint(), columnType.getSimpleName(), keyType.getSimpleName());
+        }
+        return keyPath;
+    }
+    
+    /**
+     * Create a loader which collects single-key lookups and runs them as a few IN queries.
+     * @param returnType class of the items. Can't be null.
+     * @param root table to search in. Can't be null.
+     * @param key column the lookups are done by, for example "id". Can't be null.
+     * @param keyType type of the column, primitive columns use their wrapper class. Can't be null.
+     * @throws QueryException if the key column is not of the key type.
+     */
+    public static <K extends Serializable, T, R> BatchLoader<K, T> batchLoader(final Class<T> returnType, final Class<R> root, final String key, final Class<K> keyType) {
+        TypeHelper.checkNull(root, "Can't select from null class.");
+        TypeHelper.checkNull(key, "Key must not be null.");
+        TypeHelper.checkNull(keyType, "Key type must not be null.");
+        final SearchCriteria<T, R> criteria = SearchCriteria.<T, R>select(returnType).from(root);
+        criteria.joiner.initJoinMap(criteria.query);
+        criteria.getKeyPathOf(criteria.getTableJoinOf(key), keyType);
+        
+        return new BatchLoader<>(keys -> SearchCriteria.<T, R>select(returnType)
+            .from(root)
+            .where(key, ForCollection.IN, keys)
+            .toListGroupedBy(key, keyType)
+        );
+    }
+    
+    @Override
+    public Stream<T> toStream() {
+        this.checkNoNestedCollection("toStream");
+        if (!this.canMatch()) {
+            return Stream.empty();
+        }
+        final Optional<List<SearchCriteria<T, ROOT>>> chunks = this.getChunks();
+        if (chunks.isPresent()) {
+            // Chunks are streamed one after the other, each of them is closed once it is consumed.
+            return chunks.get().stream().flatMap(SearchCriteria::toStream);
+        }
+        final Projection<T> projection = this.getProjection();
+        this.joiner.initJoinMap(this.query);
+        
+        this.query.multiselect(this.getSelections(projection));
+        this.getPredicate(this.cb).ifPresent(this.query::where);
+        
+        final EntityManager entityManager = this.acquireEntityManager();
+        final Stream<Object[]> tuple;
+        try {
+            final TypedQuery<Object[]> typedQuery = entityManager.createQuery(this.query);
+            FETCH_SIZE_HINTS.forEach(hint -> typedQuery.setHint(hint, this.fetchSize));
+            tuple = typedQuery.getResultStream().onClose(() -> this.releaseEntityManager(entityManager));
+        } catch (final RuntimeException exception) {
+            this.releaseEntityManager(entityManager);
+            throw exception;
+        }
+        
+        if (this.clearEvery == 0) {
+            return tuple.map(projection::map);
+        }
         
-        final List<Object[]> tuple = em.createQuery(this.query).getResultList();
-        return tuple.stream().map(objectValues -> this.getObjectFrom(fields, objectValues)).collect(Collectors.toList());
+        final int clearEvery = this.clearEvery;
+        final long[] mappedRows = {0};
+        return tuple.map(objectValues -> {
+            final T item = projection.map(objectValues);
+            if (++mappedRows[0] % clearEvery == 0) {
+                entityManager.clear();
+            }
+            return item;
+        });
+    }
+    
+    @Override
+    public void forEach(final Consumer<? super T> action) {
+        TypeHelper.checkNull(action, "Action must not be null.");
+        try (final Stream<T> stream = this.toStream()) {
+            stream.forEach(action);
+        }
+    }
+    
+    /**
+     * Build the query once, with every where value replaced by a parameter, so it can be executed
+     * many times with different values. Values given to where are the default values of the parameters.
+     * The prepared search has its own queries, changing the criteria afterwards doesn't change it.
+     * Fetch joins and entity graphs can't be prepared.
+     */
+    public PreparedSearch<T> prepare() {
+        this.checkNoNestedCollection("prepare");
+        if (this.isEntityQuery()) {
+            throw new QueryException("Fetch joins and entity graphs can't be prepared, please run the criteria instead.");
+        }
+        final Map<String, PreparedSearch.Parameter> parameters = new LinkedHashMap<>();
+        final List<QueryClause> predicates = CollectionHelper.emptyList();
+        for (final QueryClause predicate : this.predicates) {
+            final WhereClause clause = predicate.getClause();
+            final String key = clause.getTable().getFingerprint();
+            
+            String name = key;
+            for (int index = 2; parameters.containsKey(name); ++index) {
+                name = key + "_" + index;
+            }
+            final String parameterName = "p" + parameters.size();
+            final WhereClause parameterizedClause = clause.withParameterName(parameterName);
+            parameters.put(name, new PreparedSearch.Parameter(parameterName, parameterizedClause, clause.getValue()));
+            if (clause instanceof WhereClauseForNumber && ((WhereClauseForNumber) clause).getAction().isRange()) {
+                final String toName = name + WhereClauseForNumber.TO_PARAMETER_SUFFIX;
+                final String toParameterName = parameterName + WhereClauseForNumber.TO_PARAMETER_SUFFIX;
+                parameters.put(toName, new PreparedSearch.Parameter(toParameterName, parameterizedClause, ((WhereClauseForNumber) clause).getToValue()));
+            }
+            predicates.add(QueryClause.builder().isAndClause(predicate.isAndClause()).clause(parameterizedClause).build());
+        }
+        
+        final Projection<T> projection = this.getProjection();
+        final CriteriaQuery<Object[]> query = this.cb.createQuery(Object[].class);
+        this.joiner.initJoinMap(query);
+        query.multiselect(this.getSelections(projection));
+        this.getPredicate(this.cb, predicates).ifPresent(query::where);
+        if (this.page != null) {
+            query.orderBy(this.getOrders(this.getSortKeys()));
+        }
+        
+        final CriteriaQuery<Long> countQuery = this.cb.createQuery(Long.class);
+        this.joiner.initJoinMap(countQuery);
+        countQuery.select(this.cb.count(this.cb.literal(1)));
+        this.getPredicate(this.cb, predicates).ifPresent(countQuery::where);
+        
+        return new PreparedSearch<>(projection, query, countQuery, parameters, this.page, entityManagerProvider, this.entityManager);
+    }
+    
+    @Override
+    public CompletableFuture<List<T>> toListAsync() {
+        return this.supplyAsync(this::toList);
+    }
+    
+    @Override
+    public CompletableFuture<Page<T>> toPageAsync() {
+        return this.supplyAsync(this::toPage);
+    }
+    
+    @Override
+    public CompletableFuture<Long> countAsync() {
+        return this.supplyAsync(this::count);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> existAnyAsync() {
+        return this.supplyAsync(this::existAny);
+    }
+    
+    private <R> CompletableFuture<R> supplyAsync(final Supplier<R> operation) {
+        TypeHelper.checkNull(entityManagerProvider, "Entity manager have not been initialized. Please call init method.");
+        if (this.entityManager != null || !entityManagerProvider.isConcurrent()) {
+            throw new QueryException("Asynchronous operations need their own entity manager. Please init with an EntityManagerFactory and don't call using.");
+        }
+        return CompletableFuture.supplyAsync(operation, getExecutor());
+    }
+    
+    private <R> R execute(final Function<EntityManager, R> action) {
+        final EntityManager entityManager = this.acquireEntityManager();
+        try {
+            return action.apply(entityManager);
+        } finally {
+            this.releaseEntityManager(entityManager);
+        }
+    }
+    
+    private EntityManager acquireEntityManager() {
+        if (this.entityManager != null) {
+            return this.entityManager;
+        }
+        return entityManagerProvider.acquire();
+    }
+    
+    private void releaseEntityManager(final EntityManager entityManager) {
+        if (this.entityManager == null) {
+            entityManagerProvider.release(entityManager);
+        }
     }
     
+    /**
+     * Fold the optimized where clauses. Terminal operations don't run a query whose clauses can't match,
+     * but if one is built anyway, it matches nothing.
+     */
     private Optional<Predicate> getPredicate(final CriteriaBuilder cb) {
+        final Optional<List<QueryClause>> predicates = ClauseOptimizer.optimize(this.predicates);
+        return predicates.isPresent() ? this.getPredicate(cb, predicates.get()) : Optional.of(cb.disjunction());
+    }
+    
+    /**
+     * @return false if the where clauses contradict each other, so no row can match them.
+     */
+    private boolean canMatch() {
+        return ClauseOptimizer.optimize(this.predicates).isPresent();
+    }
+    
+    /**
+     * When tables are only used to filter, the clauses are folded in an exists subquery joining them,
+     * so each row is kept once however many related rows match.
+     */
+    private Optional<Predicate> getPredicate(final CriteriaBuilder cb, final List<QueryClause> predicates) {
+        if (!this.joiner.hasFilterOnly()) {
+            return this.foldPredicates(cb, predicates);
+        }
+        final Subquery<Integer> subquery = this.joiner.initFilterSubquery();
+        subquery.select(cb.literal(1));
+        this.foldPredicates(cb, predicates).ifPresent(subquery::where);
+        return Optional.of(cb.exists(subquery));
+    }
+    
+    private Optional<Predicate> foldPredicates(final CriteriaBuilder cb, final List<QueryClause> predicates) {
         Predicate whereClause = null;
-        for (final QueryClause predicate : this.predicates) {
+        for (final QueryClause predicate : predicates) {
             final String tableName = this.getTableNameFrom(predicate.getClause().getTable());
-            final From<?, ?> join = this.joiner.getJoin(tableName);
+            final From<?, ?> join = this.joiner.getFilterJoin(tableName);
             
             if (whereClause == null) {
-                final WhereClause clause = predicate.getClause();
-                whereClause = clause.getPredicate(cb, join);
+                whereClause = this.getPredicateOf(cb, predicate.getClause(), join);
                 continue;
             }
             if (predicate.isAndClause()) {
-                whereClause = cb.and(whereClause, predicate.getClause().getPredicate(cb, join));
+                whereClause = cb.and(whereClause, this.getPredicateOf(cb, predicate.getClause(), join));
                 continue;
             }
-            whereClause = cb.or(whereClause, predicate.getClause().getPredicate(cb, join));
+            whereClause = cb.or(whereClause, this.getPredicateOf(cb, predicate.getClause(), join));
         }
         return Optional.ofNullable(whereClause);
     }
     
+    /**
+     * Write an IN clause too large for one list, which isn't split into chunks, as IN lists joined by or.
+     */
+    private Predicate getPredicateOf(final CriteriaBuilder cb, final WhereClause clause, final From<?, ?> join) {
+        final int chunkSize = inChunkSize;
+        final boolean isLargeCollection = clause instanceof WhereClauseForCollection
+            && clause.getParameterName().isEmpty()
+            && ((WhereClauseForCollection) clause).getValue().size() > chunkSize;
+        if (!isLargeCollection) {
+            return clause.getPredicate(cb, join);
+        }
+        final WhereClauseForCollection collectionClause = (WhereClauseForCollection) clause;
+        final Predicate[] chunkPredicates = collectionClause.split(chunkSize).stream().map(chunk -> chunk.getPredicate(cb, join)).toArray(Predicate[]::new);
+        return collectionClause.getAction() == ForCollection.IN ? cb.or(chunkPredicates) : cb.and(chunkPredicates);
+    }
+    
+    /**
+     * Select the root entities with their fetch joins and entity graph. When a collection is fetched,
+     * root rows are repeated, so they are made distinct.
+     * @param maxResults negative for no limit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> queryEntities(final SearchTimer timer, final boolean isOrdered, final int firstResult, final int maxResults) {
+        final CriteriaQuery<T> entityQuery = this.cb.createQuery(this.returnType);
+        this.joiner.initJoinMap(entityQuery, true);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
+        
+        final boolean isDistinct = this.joiner.hasCollectionFetch();
+        entityQuery.select((Root<T>) this.joiner.getRoot()).distinct(isDistinct);
+        this.getPredicate(this.cb).ifPresent(entityQuery::where);
+        if (isOrdered) {
+            entityQuery.orderBy(this.getOrders(this.getSortKeys()));
+        }
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        final List<T> items = this.execute(em -> {
+            final TypedQuery<T> typedQuery = em.createQuery(entityQuery).setFirstResult(firstResult);
+            if (maxResults >= 0) {
+                typedQuery.setMaxResults(maxResults);
+            }
+            if (this.entityGraph != null) {
+                typedQuery.setHint(LOAD_GRAPH_HINT, em.getEntityGraph(this.entityGraph));
+            }
+            if (isDistinct) {
+                typedQuery.setHint(PASS_DISTINCT_THROUGH_HINT, false);
+            }
+            return typedQuery.getResultList();
+        });
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        return items;
+    }
+    
+    /**
+     * Select the dtos using a constructor expression, so the provider creates them from the columns
+     * and no row has to be mapped.
+     * @param maxResults negative for no limit.
+     * @return empty if the return type can't be created from the selected columns, rows must then be mapped.
+     */
+    private Optional<List<T>> queryConstructed(final SearchTimer timer, final Projection<T> projection, final boolean isOrdered, final int firstResult, final int maxResults) {
+        if (!projection.hasConstructor()) {
+            return Optional.empty();
+        }
+        final CriteriaQuery<T> constructQuery = this.cb.createQuery(this.returnType);
+        this.joiner.initJoinMap(constructQuery);
+        final List<Selection<?>> selections = this.getSelections(projection);
+        if (!projection.canConstruct(selections.stream().map(Selection::getJavaType).collect(Collectors.toList()))) {
+            return Optional.empty();
+        }
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
+        
+        constructQuery.select(this.cb.construct(this.returnType, selections.toArray(Selection<?>[]::new)));
+        this.getPredicate(this.cb).ifPresent(constructQuery::where);
+        if (isOrdered) {
+            constructQuery.orderBy(this.getOrders(this.getSortKeys()));
+        }
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        final List<T> items = this.execute(em -> {
+            final TypedQuery<T> typedQuery = em.createQuery(constructQuery).setFirstResult(firstResult);
+            if (maxResults >= 0) {
+                typedQuery.setMaxResults(maxResults);
+            }
+            return typedQuery.getResultList();
+        });
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        return Optional.of(items);
+    }
+    
+    private List<T> mapRows(final List<Object[]> rows, final Projection<T> projection) {
+        final SearchRowsMapped event = SearchRowsMapped.start();
+        final List<T> items = projection.mapAll(rows);
+        event.commit(this.returnType, rows.size());
+        return items;
+    }
+    
     @Override
     public Set<T> toSet() {
         return CollectionHelper.setOf(this.toList());
     }
     @Override
-    public Page<T> toPage() {
+    public SearchPage<T> toPage() {
         if (this.page == null) {
             throw new QueryException("Pageable undefined.");
         }
-        final List<String> fields = this.getSelectFields();
+        if (this.joiner.hasCollectionFetch()) {
+            throw new QueryException("toPage can't be used with a fetched collection, its rows can't be paged by the database. Please page without the fetch.");
+        }
+        if (!this.canMatch()) {
+            this.checkNoNestedCollection("toPage");
+            return new SearchPage<>(CollectionHelper.emptyList(), this.page, PageTotal.exact(0));
+        }
+        if (this.cacheTtl == null) {
+            return this.queryPage();
+        }
+        this.checkCacheable("toPage");
+        return SearchCache.get(this.getCacheKeyOf("page"), this.cacheTtl, this.getEntities(), this::queryPage);
+    }
+    
+    private SearchPage<T> queryPage() {
+        this.checkNoNestedCollection("toPage");
+        final Optional<List<SearchCriteria<T, ROOT>>> chunks = this.isEntityQuery() ? Optional.empty() : this.getChunks();
+        if (chunks.isPresent()) {
+            return this.queryChunkedPage(chunks.get());
+        }
+        if (this.isEntityQuery()) {
+            final SearchTimer timer = SearchTimer.start();
+            final List<T> items = this.queryEntities(timer, true, (int) this.page.getOffset(), this.page.getPageSize());
+            final PageTotal total = this.countStrategy.countOf(this.page, items.size(), this.getCounter(timer));
+            this.report(timer, "page", this.joiner.getRootJoin().getTableName(), true, items.size());
+            return new SearchPage<>(items, this.page, total);
+        }
+        
+        final SearchTimer timer = SearchTimer.start();
+        final Projection<T> projection = this.getProjection();
+        final Optional<List<T>> constructedItems = this.queryConstructed(timer, projection, true, (int) this.page.getOffset(), this.page.getPageSize());
+        if (constructedItems.isPresent()) {
+            final PageTotal total = this.countStrategy.countOf(this.page, constructedItems.get().size(), this.getCounter(timer));
+            this.report(timer, "page", this.getConstructorJpql(projection), true, constructedItems.get().size());
+            return new SearchPage<>(constructedItems.get(), this.page, total);
+        }
         this.joiner.initJoinMap(this.query);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
 
-        this.query.multiselect(this.getSelections(fields));
+        this.query.multiselect(this.getSelections(projection));
         this.getPredicate(this.cb).ifPresent(this.query::where);
+        this.query.orderBy(this.getOrders(this.getSortKeys()));
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
     
-        final List<Object[]> tuple = em.createQuery(this.query)
+        final List<Object[]> tuple = this.execute(em -> em.createQuery(this.query)
             .setFirstResult((int) this.page.getOffset())
             .setMaxResults(this.page.getPageSize())
-            .getResultList();
+            .getResultList());
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        
+        final List<T> items = this.mapRows(tuple, projection);
+        timer.lap(SearchPhase.ROW_MAPPING);
+        
+        final PageTotal total = this.countStrategy.countOf(this.page, items.size(), this.getCounter(timer));
+        this.report(timer, "page", this.getSelectionJpql(projection), true, tuple.size());
+        return new SearchPage<>(items, this.page, total);
+    }
+    
+    /**
+     * Every chunk reads its rows up to the end of the page, with the sort keys after the columns.
+     * They are merged in sort order, then the rows of the page are mapped.
+     */
+    private SearchPage<T> queryChunkedPage(final List<SearchCriteria<T, ROOT>> chunks) {
+        final List<SortKey> sortKeys = this.getSortKeys();
+        final int maxResults = Math.toIntExact(this.page.getOffset() + this.page.getPageSize());
+        final List<List<Object[]>> chunkRows = this.runChunks(chunks, chunk -> chunk.querySortedRows(sortKeys, maxResults));
         
-        final List<T> items = tuple.stream()
-            .map(objectValues -> this.getObjectFrom(fields, objectValues))
+        final Projection<T> projection = this.getProjection();
+        final List<Object[]> rows = chunkRows.stream()
+            .flatMap(List::stream)
+            .sorted(rowComparatorOf(sortKeys, projection.getColumns().size()))
+            .skip(this.page.getOffset())
+            .limit(this.page.getPageSize())
             .collect(Collectors.toList());
+        final List<T> items = this.mapRows(rows, projection);
+        
+        final PageTotal total = this.countStrategy.countOf(this.page, items.size(), new CountStrategy.Counter() {
+            @Override
+            public long count() {
+                return SearchCriteria.this.runChunks(chunks, chunk -> chunk.queryCount(SearchTimer.start())).stream().mapToLong(Long::longValue).sum();
+            }
+            
+            @Override
+            public long countUpTo(final long limit) {
+                final long count = SearchCriteria.this.runChunks(chunks, chunk -> chunk.countUpTo(limit, SearchTimer.start())).stream().mapToLong(Long::longValue).sum();
+                return Math.min(count, limit);
+            }
+            
+            @Override
+            public String getFingerprint() {
+                return SearchCriteria.this.getFingerprint();
+            }
+        });
+        return new SearchPage<>(items, this.page, total);
+    }
+    
+    /**
+     * @return first rows in sort order, with the values of the sort keys after the columns.
+     */
+    private List<Object[]> querySortedRows(final List<SortKey> sortKeys, final int maxResults) {
+        final SearchTimer timer = SearchTimer.start();
+        final Projection<T> projection = this.getProjection();
+        this.joiner.initJoinMap(this.query);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
+        
+        final List<Selection<?>> selections = this.getSelections(projection);
+        sortKeys.forEach(sortKey -> selections.add(this.getPathOf(sortKey.getTable())));
+        this.query.multiselect(selections);
+        this.getPredicate(this.cb).ifPresent(this.query::where);
+        this.query.orderBy(this.getOrders(sortKeys));
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        final List<Object[]> rows = this.execute(em -> em.createQuery(this.query).setMaxResults(maxResults).getResultList());
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        
+        this.report(timer, "page", this.getSelectionJpql(projection), true, rows.size());
+        return rows;
+    }
+    
+    /**
+     * Compare rows by the values of the sort keys after their columns. Values are compared in Java:
+     * null comes first, and strings don't follow the collation of the database.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object[]> rowComparatorOf(final List<SortKey> sortKeys, final int offset) {
+        Comparator<Object[]> comparator = (left, right) -> 0;
+        for (int i = 0; i < sortKeys.size(); ++i) {
+            final int index = offset + i;
+            final Comparator<Object[]> keyComparator = Comparator.comparing(row -> (Comparable) row[index], Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(sortKeys.get(i).isAscending() ? keyComparator : keyComparator.reversed());
+        }
+        return comparator;
+    }
+    
+    /**
+     * Split the query on the IN clause too large for one statement. Every row must match that clause and
+     * its values must be compared like the database does, so each row is read by exactly one chunk: strings
+     * equal in a case insensitive collation could be in two chunks. It isn't split either when the IN clause
+     * is on a joined table and rows are assembled into items, since the rows of an item could be read by
+     * several chunks, or when it is on a filter only table, since a row could have related rows in several chunks.
+     * @return criteria of every chunk. Empty if the query doesn't need to, or can't, be split.
+     */
+    private Optional<List<SearchCriteria<T, ROOT>>> getChunks() {
+        final List<QueryClause> predicates = ClauseOptimizer.optimize(this.predicates).orElse(List.of());
+        final int chunkSize = inChunkSize;
+        
+        int chunkedIndex = -1;
+        for (int i = 0; i < predicates.size(); ++i) {
+            final WhereClause clause = predicates.get(i).getClause();
+            final boolean isLargeIn = clause instanceof WhereClauseForCollection
+                && ((WhereClauseForCollection) clause).getAction() == ForCollection.IN
+                && clause.getParameterName().isEmpty()
+                && ((WhereClauseForCollection) clause).getValue().size() > chunkSize;
+            if (isLargeIn && chunkedIndex >= 0) {
+                return Optional.empty();
+            }
+            if (isLargeIn) {
+                chunkedIndex = i;
+            }
+        }
+        if (chunkedIndex < 0) {
+            return Optional.empty();
+        }
+        // Joined by and to everything before it, and so is everything after it.
+        for (int i = Math.max(chunkedIndex, 1); i < predicates.size(); ++i) {
+            if (!predicates.get(i).isAndClause()) {
+                return Optional.empty();
+            }
+        }
+        
+        final WhereClauseForCollection clause = (WhereClauseForCollection) predicates.get(chunkedIndex).getClause();
+        if (!clause.getValue().stream().allMatch(ClauseOptimizer::isComparable)) {
+            return Optional.empty();
+        }
+        final String tableName = this.getTableNameFrom(clause.getTable());
+        if (this.joiner.isFilterOnly(tableName)) {
+            return Optional.empty();
+        }
+        final boolean isRootColumn = tableName.equals(this.joiner.getRootJoin().getTableName());
+        final boolean isAssembled = this.isEntityQuery() ? this.joiner.hasCollectionFetch() : Projection.of(this.returnType).hasCollection();
+        if (!isRootColumn && isAssembled) {
+            return Optional.empty();
+        }
+        
+        final List<SearchCriteria<T, ROOT>> chunks = CollectionHelper.emptyList();
+        for (final WhereClause chunkClause : clause.split(chunkSize)) {
+            final List<QueryClause> chunkPredicates = new ArrayList<>(predicates);
+            chunkPredicates.set(chunkedIndex, QueryClause.builder().isAndClause(true).clause(chunkClause).build());
+            chunks.add(new SearchCriteria<>(this, chunkPredicates));
+        }
+        return Optional.of(chunks);
+    }
+    
+    /**
+     * Run an operation on every chunk, up to chunkParallelism at the same time when each of them gets its own
+     * entity manager. Chunks the executor hasn't started yet are run by the caller, which may itself run on the executor.
+     * @return results in chunk order.
+     */
+    private <R> List<R> runChunks(final List<SearchCriteria<T, ROOT>> chunks, final Function<SearchCriteria<T, ROOT>, R> operation) {
+        if (this.entityManager != null || !entityManagerProvider.isConcurrent()) {
+            return chunks.stream().map(operation).collect(Collectors.toList());
+        }
+        final List<Supplier<R>> tasks = chunks.stream().<Supplier<R>>map(chunk -> () -> operation.apply(chunk)).collect(Collectors.toList());
+        return ExecutorHelper.runAll(tasks, getExecutor(), chunkParallelism);
+    }
+    
+    /**
+     * @param timer timer of the page, count queries are part of its phases.
+     */
+    private CountStrategy.Counter getCounter(final SearchTimer timer) {
+        return new CountStrategy.Counter() {
+            @Override
+            public long count() {
+                return SearchCriteria.this.queryCount(timer);
+            }
+            
+            @Override
+            public long countUpTo(final long limit) {
+                return SearchCriteria.this.countUpTo(limit, timer);
+            }
+            
+            @Override
+            public String getFingerprint() {
+                return SearchCriteria.this.getFingerprint();
+            }
+        };
+    }
+    
+    /**
+     * @return entities read by the query: the root and every joined table.
+     */
+    private Set<Class<?>> getEntities() {
+        final Set<Class<?>> entities = CollectionHelper.setOf(this.joiner.getRootJoin().getClazz());
+        this.joiner.getJoinPoints().forEach(joinPoint -> joinPoint.getType().ifPresent(entities::add));
+        return entities;
+    }
+    
+    /**
+     * Cached items are shared by every caller, so they must not be changed by one of them.
+     * Entities can't be cached either since they are managed by the entity manager which read them.
+     */
+    private void checkCacheable(final String operation) {
+        if (this.isEntityQuery() || ReflectionHelper.hasAnnotation(Entity.class, this.returnType) || !ReflectionHelper.isImmutable(this.returnType)) {
+            throw new QueryException("%s can only cache immutable dtos, %s can be changed. Cache count and existAny only, or make its fields final.", operation, this.returnType.getSimpleName());
+        }
+    }
+    
+    /**
+     * Key of a cached result: the hash of the operation, the return type, the page and the fingerprint.
+     */
+    private String getCacheKeyOf(final String operation) {
+        final String page = this.page == null ? null : this.page.getOffset() + "+" + this.page.getPageSize() + " " + this.page.getSort();
+        return StringHelper.sha256Of(Fingerprint.of(operation).add(this.returnType.getName()).add(page).add(this.entityGraph).add(this.getFingerprint()).toString());
+    }
+    
+    /**
+     * @return text which is the same for every criteria with the same tables and filters.
+     * Return type and page are not part of it.
+     */
+    public String getFingerprint() {
+        final Fingerprint fingerprint = Fingerprint.of(this.joiner.getFingerprint());
+        for (final QueryClause predicate : this.predicates) {
+            fingerprint.add(predicate.getFingerprint());
+        }
+        return fingerprint.toString();
+    }
+    
+    @Override
+    public KeysetSlice<T> toSlice(final String cursor) {
+        if (this.page == null) {
+            throw new QueryException("Pageable undefined.");
+        }
+        this.checkNoNestedCollection("toSlice");
+        if (!this.canMatch()) {
+            return new KeysetSlice<>(CollectionHelper.emptyList(), this.page, null);
+        }
+        final Projection<T> projection = this.getProjection();
+        this.joiner.initJoinMap(this.query);
+        
+        final List<SortKey> sortKeys = this.getSortKeys();
+        this.withIdSortKey(sortKeys);
+        
+        final List<Selection<?>> selections = this.getSelections(projection);
+        sortKeys.forEach(sortKey -> selections.add(this.getPathOf(sortKey.getTable())));
+        this.query.multiselect(selections);
         
-        return new PageImpl<>(items, this.page, this.count());
+        final Optional<Predicate> predicate = this.getPredicate(this.cb);
+        if (cursor == null) {
+            predicate.ifPresent(this.query::where);
+        } else {
+            final Predicate keysetPredicate = this.getKeysetPredicate(sortKeys, KeysetCursor.decode(cursor, sortKeys));
+            this.query.where(predicate.map(where -> this.cb.and(where, keysetPredicate)).orElse(keysetPredicate));
+        }
+        this.query.orderBy(this.getOrders(sortKeys));
+        
+        final int pageSize = this.page.getPageSize();
+        final List<Object[]> tuple = this.execute(em -> em.createQuery(this.query)
+            .setMaxResults(pageSize + 1)
+            .getResultList());
+        
+        final List<Object[]> rows = tuple.size() > pageSize ? tuple.subList(0, pageSize) : tuple;
+        final List<T> items = this.mapRows(rows, projection);
+        
+        if (tuple.size() <= pageSize) {
+            return new KeysetSlice<>(items, this.page, null);
+        }
+        final Object[] lastRow = CollectionHelper.getLastElementOf(rows);
+        final int width = projection.getColumns().size();
+        final Object[] lastKeys = Arrays.copyOfRange(lastRow, width, width + sortKeys.size());
+        return new KeysetSlice<>(items, this.page, KeysetCursor.of(lastKeys).encode());
+    }
+    
+    private List<SortKey> getSortKeys() {
+        final List<SortKey> sortKeys = CollectionHelper.emptyList();
+        for (final Sort.Order order : this.page.getSort()) {
+            final TableJoin table = TableJoin.of(order.getProperty());
+            final Field field = this.getColumnFieldOf(table);
+            final SortKey sortKey = SortKey.builder()
+                .table(table.withColumn(field.getName()))
+                .type(field.getType())
+                .isAscending(order.isAscending())
+                .build();
+            sortKeys.add(sortKey);
+        }
+        return sortKeys;
+    }
+    
+    /**
+     * Keyset pagination needs an unique order, so the id of the root is always the last sort key.
+     */
+    private void withIdSortKey(final List<SortKey> sortKeys) {
+        final Field idField = EntityMetadata.of(this.joiner.getRootJoin().getClazz())
+            .getIdField()
+            .orElseThrow(() -> new QueryException("Keyset pagination requires %s to have an @Id field.", this.joiner.getRootJoin().getTableName()));
+        
+        final boolean isSortedById = sortKeys.stream().anyMatch(sortKey -> {
+            final TableJoin table = sortKey.getTable();
+            return StringHelper.isBlank(table.getName()) && Objects.equals(table.getColumn(), idField.getName());
+        });
+        if (isSortedById) {
+            return;
+        }
+        
+        final boolean isAscending = sortKeys.isEmpty() || CollectionHelper.getLastElementOf(sortKeys).isAscending();
+        sortKeys.add(SortKey.builder().table(TableJoin.of(idField.getName())).type(idField.getType()).isAscending(isAscending).build());
+    }
+    
+    private List<Order> getOrders(final List<SortKey> sortKeys) {
+        return sortKeys.stream()
+            .map(sortKey -> {
+                final Expression<?> path = this.getPathOf(sortKey.getTable());
+                return sortKey.isAscending() ? this.cb.asc(path) : this.cb.desc(path);
+            })
+            .collect(Collectors.toList());
+    }
+    
+    private Path<?> getPathOf(final TableJoin table) {
+        return this.joiner.getJoin(this.getTableNameFrom(table)).get(table.getColumn());
+    }
+    
+    /**
+     * Build the predicate that selects rows after the cursor:
+     * (k1 > v1) or (k1 = v1 and k2 > v2) or ... with "<" for descending keys.
+     */
+    private Predicate getKeysetPredicate(final List<SortKey> sortKeys, final KeysetCursor cursor) {
+        final List<Predicate> alternatives = CollectionHelper.emptyList();
+        for (int i = 0; i < sortKeys.size(); ++i) {
+            final List<Predicate> conditions = CollectionHelper.emptyList();
+            for (int j = 0; j < i; ++j) {
+                final WhereClause clause = WhereClauseForAll.builder()
+                    .table(sortKeys.get(j).getTable())
+                    .action(ForAll.EQUAL)
+                    .value(cursor.getValue(j))
+                    .build();
+                conditions.add(this.getPredicateOf(clause));
+            }
+            final SortKey sortKey = sortKeys.get(i);
+            final WhereClause clause = WhereClauseForNumber.builder()
+                .table(sortKey.getTable())
+                .action(sortKey.isAscending() ? ForNumber.LARGER_THAN : ForNumber.LESS_THAN)
+                .value((Comparable<?>) cursor.getValue(i))
+                .build();
+            conditions.add(this.getPredicateOf(clause));
+            
+            alternatives.add(this.cb.and(conditions.toArray(Predicate[]::new)));
+        }
+        return this.cb.or(alternatives.toArray(Predicate[]::new));
+    }
+    
+    private Predicate getPredicateOf(final WhereClause clause) {
+        final String tableName = this.getTableNameFrom(clause.getTable());
+        return clause.getPredicate(this.cb, this.joiner.getJoin(tableName));
     }
     
     @Override
     public Optional<T> findFirst() {
-        try {
-            final List<String> fields = this.getSelectFields();
-            this.joiner.initJoinMap(this.query);
-
-            this.query.multiselect(this.getSelections(fields));
-            this.getPredicate(this.cb).ifPresent(this.query::where);
-        
-            final Object[] value = em.createQuery(this.query).getSingleResult();
-            return Optional.ofNullable(this.getObjectFrom(fields, value));
-        } catch (final NoResultException exception) {
+        if (!this.canMatch()) {
             return Optional.empty();
         }
+        final Optional<List<SearchCriteria<T, ROOT>>> chunks = this.getChunks();
+        if (chunks.isPresent()) {
+            // Chunks run one after the other, the next one is only needed when nothing was found.
+            return chunks.get().stream().map(SearchCriteria::findFirst).flatMap(Optional::stream).findFirst();
+        }
+        if (this.isEntityQuery()) {
+            final SearchTimer timer = SearchTimer.start();
+            // Rows of a fetched collection can't be limited, the provider would read all of them anyway.
+            final List<T> items = this.queryEntities(timer, false, 0, this.joiner.hasCollectionFetch() ? -1 : 1);
+            this.report(timer, "first", this.joiner.getRootJoin().getTableName(), false, items.size());
+            return items.stream().findFirst();
+        }
+        
+        final SearchTimer timer = SearchTimer.start();
+        final Projection<T> projection = this.getProjection();
+        final Optional<List<T>> constructedItems = this.queryConstructed(timer, projection, false, 0, 1);
+        if (constructedItems.isPresent()) {
+            this.report(timer, "first", this.getConstructorJpql(projection), false, constructedItems.get().size());
+            return constructedItems.get().stream().findFirst();
+        }
+        this.joiner.initJoinMap(this.query);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
+        
+        this.query.multiselect(this.getSelections(projection));
+        this.getPredicate(this.cb).ifPresent(this.query::where);
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        // Rows of the first item can't be told apart from the others, so all of them are read.
+        final List<Object[]> tuple = this.execute(em -> {
+            final TypedQuery<Object[]> typedQuery = em.createQuery(this.query);
+            return projection.hasCollection() ? typedQuery.getResultList() : typedQuery.setMaxResults(1).getResultList();
+        });
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        
+        final Optional<T> item = this.mapRows(tuple, projection).stream().findFirst();
+        timer.lap(SearchPhase.ROW_MAPPING);
+        
+        this.report(timer, "first", this.getSelectionJpql(projection), false, tuple.size());
+        return item;
     }
     
     @Override
     public Long count() {
-        final CriteriaQuery<Long> countQuery = em.getCriteriaBuilder().createQuery(Long.class);
+        if (!this.canMatch()) {
+            return 0L;
+        }
+        if (this.cacheTtl == null) {
+            return this.queryCount();
+        }
+        return SearchCache.get(this.getCacheKeyOf("count"), this.cacheTtl, this.getEntities(), this::queryCount);
+    }
+    
+    private Long queryCount() {
+        final Optional<List<SearchCriteria<T, ROOT>>> chunks = this.getChunks();
+        if (chunks.isPresent()) {
+            return this.runChunks(chunks.get(), SearchCriteria::queryCount).stream().mapToLong(Long::longValue).sum();
+        }
+        final SearchTimer timer = SearchTimer.start();
+        final long count = this.queryCount(timer);
+        this.report(timer, "count", "count(1)", false, 1);
+        return count;
+    }
+    
+    private long queryCount(final SearchTimer timer) {
+        final CriteriaQuery<Long> countQuery = this.cb.createQuery(Long.class);
 
         this.joiner.initJoinMap(countQuery);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
         
-        final Expression<Long> selection = this.cb.count(this.cb.literal(1));
+        final Expression<Long> selection = this.joiner.hasCollectionFetch() ? this.cb.countDistinct(this.joiner.getRoot()) : this.cb.count(this.cb.literal(1));
         countQuery.multiselect(selection);
 
-        this.getPredicate(this.cb).ifPresent(this.query::where);
-        return em.createQuery(countQuery).getSingleResult();
+        this.getPredicate(this.cb).ifPresent(countQuery::where);
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        final long count = this.execute(em -> em.createQuery(countQuery).getSingleResult());
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        return count;
+    }
+    
+    /**
+     * JPA can't count the rows of a limited subquery, so this reads up to limit rows of a constant and
+     * counts them as they stream, without keeping them.
+     */
+    private long countUpTo(final long limit, final SearchTimer timer) {
+        if (this.joiner.hasCollectionFetch()) {
+            return Math.min(this.queryCount(timer), limit);
+        }
+        final CriteriaQuery<Integer> countQuery = this.cb.createQuery(Integer.class);
+        this.joiner.initJoinMap(countQuery);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
+        
+        countQuery.select(this.cb.literal(1));
+        this.getPredicate(this.cb).ifPresent(countQuery::where);
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        final long count = this.execute(em -> {
+            final TypedQuery<Integer> typedQuery = em.createQuery(countQuery).setMaxResults((int) Math.min(limit, Integer.MAX_VALUE));
+            FETCH_SIZE_HINTS.forEach(hint -> typedQuery.setHint(hint, this.fetchSize));
+            try (Stream<Integer> rows = typedQuery.getResultStream()) {
+                return rows.count();
+            }
+        });
+        timer.lap(SearchPhase.QUERY_EXECUTION);
+        return count;
     }
     
     @Override
     public boolean existAny() {
-        final CriteriaBuilder cb = em.getCriteriaBuilder();
-        
-        final CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        if (!this.canMatch()) {
+            return false;
+        }
+        if (this.cacheTtl == null) {
+            return this.queryExistAny();
+        }
+        return SearchCache.get(this.getCacheKeyOf("exist"), this.cacheTtl, this.getEntities(), this::queryExistAny);
+    }
+    
+    private boolean queryExistAny() {
+        final Optional<List<SearchCriteria<T, ROOT>>> chunks = this.getChunks();
+        if (chunks.isPresent()) {
+            return this.runChunks(chunks.get(), SearchCriteria::queryExistAny).contains(true);
+        }
+        final SearchTimer timer = SearchTimer.start();
+        final CriteriaQuery<Long> query = this.cb.createQuery(Long.class);
         this.joiner.initJoinMap(query);
+        timer.lap(SearchPhase.JOIN_MAP_INIT);
         
         query.select(this.cb.literal(1L));
-        this.getPredicate(this.cb).ifPresent(this.query::where);
+        this.getPredicate(this.cb).ifPresent(query::where);
+        timer.lap(SearchPhase.CRITERIA_CONSTRUCTION);
+        
+        final List<Long> result = this.execute(em -> em.createQuery(query).setMaxResults(1).getResultList());
+        timer.lap(SearchPhase.QUERY_EXECUTION);
         
-        final List<Long> result = em.createQuery(query).setMaxResults(1).getResultList();
+        this.report(timer, "exist", "1", false, result.size());
         return CollectionHelper.isNotEmpty(result);
     }
     
-    private Selection<?>[] getSelections(final List<String> fields) {
-        return fields.stream().map(field -> this.joiner.getRoot().get(field)).toArray(Selection[]::new);
+    private void report(final SearchTimer timer, final String operation, final String selection, final boolean isOrdered, final long rowCount) {
+        final SearchEvent event = SearchEvent.builder()
+            .operation(operation)
+            .rootType(this.joiner.getRootJoin().getClazz())
+            .returnType(this.returnType)
+            .rootTable(this.joiner.getRootJoin().getTableName())
+            .joinChain(this.joiner.getJoinPoints().stream().map(JoinPoint::getTableName).collect(Collectors.toList()))
+            .clauses(this.predicates)
+            .statement(() -> this.toJpql(selection, isOrdered))
+            .timer(timer)
+            .rowCount(rowCount)
+            .build();
+        timer.commit(event);
+        metrics.onSearch(event);
+    }
+    
+    private String getConstructorJpql(final Projection<T> projection) {
+        return "new " + this.returnType.getName() + "(" + this.getSelectionJpql(projection) + ")";
+    }
+    
+    private String getSelectionJpql(final Projection<T> projection) {
+        return projection.getColumns()
+            .stream()
+            .map(this::getTableJoinOf)
+            .map(column -> this.getTableNameFrom(column) + "." + column.getColumn())
+            .collect(Collectors.joining(", "));
+    }
+    
+    /**
+     * Write the query as JPQL with its values inlined. Where clauses are folded from left to right,
+     * so "a and b or c" is written "(a and b) or c".
+     */
+    private String toJpql(final String selection, final boolean isOrdered) {
+        final StringBuilder jpql = new StringBuilder("select ").append(selection).append(' ').append(this.joiner.toJpql());
+        
+        final List<QueryClause> predicates = ClauseOptimizer.optimize(this.predicates).orElse(List.of());
+        String whereClause = null;
+        for (int i = 0; i < predicates.size(); ++i) {
+            final QueryClause predicate = predicates.get(i);
+            final WhereClause clause = predicate.getClause();
+            final String clauseJpql = clause.toJpql(this.getTableNameFrom(clause.getTable()) + "." + clause.getTable().getColumn());
+            if (i == 0) {
+                whereClause = clauseJpql;
+                continue;
+            }
+            final String left = i == 1 ? whereClause : "(" + whereClause + ")";
+            whereClause = left + (predicate.isAndClause() ? " and " : " or ") + clauseJpql;
+        }
+        if (this.joiner.hasFilterOnly()) {
+            final String subquery = this.joiner.toFilterJpql() + (whereClause == null ? "" : " where " + whereClause);
+            jpql.append(" where exists (").append(subquery).append(')');
+        } else if (whereClause != null) {
+            jpql.append(" where ").append(whereClause);
+        }
+        
+        if (isOrdered && this.page != null && this.page.getSort().isSorted()) {
+            final String orders = this.getSortKeys()
+                .stream()
+                .map(sortKey -> this.getTableNameFrom(sortKey.getTable()) + "." + sortKey.getTable().getColumn() + (sortKey.isAscending() ? " asc" : " desc"))
+                .collect(Collectors.joining(", "));
+            jpql.append(" order by ").append(orders);
+        }
+        return jpql.toString();
+    }
+    
+    /**
+     * Get the projection of the return type. Tables of its nested objects are left joined, so items
+     * without nested object are kept.
+     */
+    private Projection<T> getProjection() {
+        final Projection<T> projection = Projection.of(this.returnType);
+        projection.getNestedTableNames().forEach(this.joiner::leftJoin);
+        return projection;
     }
     
-    private List<String> getSelectFields() {
-        return ReflectionHelper
-            .getNonStaticFieldsOf(this.returnType).stream()
-            .filter(CriteriaHelper::isColumn)
-            .map(Field::getName).collect(Collectors.toList());
+    /**
+     * Rows of an item with a nested collection are only assembled by toList and findFirst,
+     * other operations would cut or split them.
+     */
+    private void checkNoNestedCollection(final String operation) {
+        if (Projection.of(this.returnType).hasCollection()) {
+            throw new QueryException("%s can't be used with the nested collection of %s.", operation, this.returnType.getSimpleName());
+        }
     }
     
-    private T getObjectFrom(final List<String> fields, final Object[] values) {
-        final HashMap<String, Object> fieldValueMap = CollectionHelper.emptyMap();
-        for (int i = 0; i < fields.size() - 1; ++i) {
-            final String field = fields.get(i);
-            final Object value = values[i];
-            fieldValueMap.put(field, value);
+    /**
+     * @return selections of the projection, followed by the id of the root if it has a nested collection.
+     */
+    private List<Selection<?>> getSelections(final Projection<T> projection) {
+        final List<Selection<?>> selections = projection.getColumns()
+            .stream()
+            .map(column -> this.getPathOf(this.getTableJoinOf(column)))
+            .collect(Collectors.toList());
+        if (projection.hasCollection()) {
+            final JoinPoint rootJoin = this.joiner.getRootJoin();
+            final Field idField = EntityMetadata.of(rootJoin.getClazz())
+                .getIdField()
+                .orElseThrow(() -> new QueryException("Nested collections require %s to have an @Id field.", rootJoin.getTableName()));
+            selections.add(this.joiner.getRoot().get(idField.getName()));
         }
-        return TypeHelper.convertFromMapToObject(this.returnType, fieldValueMap);
+        return selections;
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package ananta.api.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Read a field of a dto from another column than the root column of the same name, for example
+ * {@code @SelectColumn("customers.name") String customerName} next to the columns of an order,
+ * when the criteria joins customers. Only that column of the joined table is selected.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SelectColumn {
+    /**
+     * @return "column" of the root or "table.column" of a joined table, using field or column names.
+     */
+    String value();
+}
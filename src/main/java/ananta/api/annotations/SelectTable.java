@@ -0,0 +1,26 @@
+package ananta.api.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fill a field of a dto with an object, or a list or set of objects, whose columns are read from
+ * a joined table of the criteria. For example, with
+ * <pre>
+ * select(OrderView.class).from(Order.class).join("lines")
+ * </pre>
+ * a field {@code @SelectTable("lines") List<LineView> lines} gets the lines of every order,
+ * from the same query. Fields of the nested class are columns of the joined entity.
+ * <br/>
+ * A dto can have at most one nested collection. The field must not be final.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SelectTable {
+    /**
+     * @return name or alias of the joined table.
+     */
+    String value();
+}
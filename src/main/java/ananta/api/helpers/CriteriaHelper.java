@@ -11,9 +11,11 @@ import javax.persistence.Table;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class CriteriaHelper {
     
@@ -61,6 +63,23 @@ public class CriteriaHelper {
     }
     
     
+    /**
+     * Write a where value as JPQL: ":name" if it is read from a parameter, otherwise the literal,
+     * quoted when it is not a number or a boolean.
+     */
+    public static String toJpqlValue(final Object value, final String parameterName) {
+        if (parameterName != null) {
+            return ":" + parameterName;
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(item -> toJpqlValue(item, null)).collect(Collectors.joining(", ", "(", ")"));
+        }
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            return String.valueOf(value);
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+    
     public static String tableNameOf(Class<?> entity) {
         return ReflectionHelper
             .getAnnotation(Table.class, entity)
@@ -0,0 +1,93 @@
+package ananta.api.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ExecutorHelper {
+    
+    private ExecutorHelper() {}
+    
+    /**
+     * Create an executor fit for tasks that mostly wait for the database.
+     * @return an executor starting a virtual thread per task if the JVM supports it (Java 21+).
+     * Otherwise, return a cached thread pool of daemon threads.
+     */
+    public static ExecutorService newBlockingTaskExecutor(final String threadNamePrefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException | ClassCastException exception) {
+            return Executors.newCachedThreadPool(daemonThreadFactory(threadNamePrefix));
+        }
+    }
+    
+    /**
+     * Run tasks on the caller and on at most maxParallelism - 1 threads of the executor, and wait for all
+     * of them. Each runner takes the next task not taken yet, so the caller runs every task the executor
+     * hasn't started and only waits for running tasks. It can't deadlock when it is itself a task of a
+     * bounded executor whose threads are all busy.
+     * @param maxParallelism number of tasks running at the same time, at least 1.
+     * @return results in task order.
+     * @throws RuntimeException the first exception thrown by a task, in task order.
+     */
+    public static <R> List<R> runAll(final List<Supplier<R>> tasks, final Executor executor, final int maxParallelism) {
+        final List<CompletableFuture<R>> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); ++i) {
+            results.add(new CompletableFuture<>());
+        }
+        final AtomicInteger nextTask = new AtomicInteger();
+        final Runnable runner = () -> {
+            for (int i = nextTask.getAndIncrement(); i < tasks.size(); i = nextTask.getAndIncrement()) {
+                run(tasks.get(i), results.get(i));
+            }
+        };
+        final int executorRunnerCount = Math.min(maxParallelism, tasks.size()) - 1;
+        for (int i = 0; i < executorRunnerCount; ++i) {
+            try {
+                executor.execute(runner);
+            } catch (final RejectedExecutionException ignored) {
+                // The caller runs the tasks.
+                break;
+            }
+        }
+        runner.run();
+        
+        final List<R> values = new ArrayList<>(tasks.size());
+        try {
+            for (final CompletableFuture<R> result : results) {
+                values.add(result.join());
+            }
+        } catch (final CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+        return values;
+    }
+    
+    private static <R> void run(final Supplier<R> task, final CompletableFuture<R> result) {
+        try {
+            result.complete(task.get());
+        } catch (final Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+    }
+    
+    private static ThreadFactory daemonThreadFactory(final String threadNamePrefix) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
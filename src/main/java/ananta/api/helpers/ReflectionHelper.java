@@ -6,12 +6,16 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,6 +24,7 @@ public class ReflectionHelper {
     private ReflectionHelper() {}
     
     private static final Set<Class<?>> wrapperClasses = CollectionHelper.setOf(Boolean.class, Byte.class, Character.class, Double.class, Float.class, Integer.class, Long.class, Short.class, Void.class);
+    private static final Set<Class<?>> immutableClasses = CollectionHelper.setOf(String.class, BigDecimal.class, BigInteger.class, UUID.class);
     
     /**
      * @author Ananta0810
@@ -390,4 +395,34 @@ public class ReflectionHelper {
         }
         return Optional.of(field.getType());
     }
+    
+    /**
+     * Check whether the objects of a class can't be changed once created: primitives, wrappers, strings,
+     * big numbers, enums, java.time values, and classes whose fields are all final and of such types.
+     * Collections, arrays and other mutable types are not immutable.
+     * @param clazz can be null.
+     * @return false if input is null or objects of the class can be changed. Otherwise, return true.
+     */
+    public static boolean isImmutable(final Class<?> clazz) {
+        return isImmutable(clazz, new HashSet<>());
+    }
+    
+    private static boolean isImmutable(final Class<?> clazz, final Set<Class<?>> checkedClasses) {
+        if (clazz == null) {
+            return false;
+        }
+        if (clazz.isPrimitive() || clazz.isEnum() || wrapperClasses.contains(clazz) || immutableClasses.contains(clazz)) {
+            return true;
+        }
+        if (clazz.getName().startsWith("java.time.")) {
+            return !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers());
+        }
+        if (clazz.isArray() || clazz.isInterface() || clazz.getName().startsWith("java.")) {
+            return false;
+        }
+        if (!checkedClasses.add(clazz)) {
+            return true;
+        }
+        return getNonStaticFieldsOf(clazz).stream().allMatch(field -> Modifier.isFinal(field.getModifiers()) && isImmutable(field.getType(), checkedClasses));
+    }
 }
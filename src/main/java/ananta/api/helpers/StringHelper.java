@@ -1,5 +1,9 @@
 package ananta.api.helpers;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 public class StringHelper {
     
     private StringHelper() {}
@@ -35,5 +39,23 @@ public class StringHelper {
     public static boolean isNotBlank(String value) {
         return !isBlank(value);
     }
+    
+    /**
+     * Get the SHA-256 hash of a text, in hexadecimal. Long texts like cache keys can be
+     * replaced by it to keep a fixed size.
+     * @param value can't be null.
+     */
+    public static String sha256Of(final String value) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (final byte part : hash) {
+                hex.append(Character.forDigit((part >> 4) & 0xF, 16)).append(Character.forDigit(part & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform must support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
 }
-
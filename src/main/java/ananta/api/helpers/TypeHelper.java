@@ -20,6 +20,18 @@ public class TypeHelper {
         }
     }
     
+    public static String toJson(final Object object) {
+        return GSON.toJson(object);
+    }
+    
+    public static <T> T fromJson(final String json, final Class<T> objectClass) {
+        return GSON.fromJson(json, objectClass);
+    }
+    
+    public static <T> T fromJson(final JsonElement json, final Class<T> objectClass) {
+        return GSON.fromJson(json, objectClass);
+    }
+    
     public static <T> T convertFromMapToObject(final Class<T> objectClass, final HashMap<String, Object> objectValues) {
         final JsonElement jsonElement = GSON.toJsonTree(objectValues);
         return GSON.fromJson(jsonElement, objectClass);
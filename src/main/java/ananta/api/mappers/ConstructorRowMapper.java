@@ -0,0 +1,79 @@
+package ananta.api.mappers;
+
+import ananta.api.models.QueryException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Passes every value to the constructor whose parameters are the selected fields in declaration order.
+ * This is the way immutable objects with final fields get mapped.
+ */
+class ConstructorRowMapper<T> implements RowMapper<T> {
+    private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object[].class);
+    
+    private final Class<T> clazz;
+    private final MethodHandle constructor;
+    private final Class<?>[] types;
+    private final Object[] defaultValues;
+    
+    private ConstructorRowMapper(final Class<T> clazz, final MethodHandle constructor, final Class<?>[] types, final Object[] defaultValues) {
+        this.clazz = clazz;
+        this.constructor = constructor;
+        this.types = types;
+        this.defaultValues = defaultValues;
+    }
+    
+    /**
+     * Compile a mapper for certain class.
+     * @return empty if the class has no constructor taking exactly the fields as parameters.
+     */
+    static <T> Optional<RowMapper<T>> compile(final Class<T> clazz, final List<Field> fields) {
+        if (Modifier.isAbstract(clazz.getModifiers()) || fields.isEmpty()) {
+            return Optional.empty();
+        }
+        final Class<?>[] parameterTypes = fields.stream().map(Field::getType).toArray(Class<?>[]::new);
+        final Optional<Constructor<?>> constructor = Arrays.stream(clazz.getDeclaredConstructors())
+            .filter(ctor -> Arrays.equals(ctor.getParameterTypes(), parameterTypes))
+            .findFirst();
+        if (constructor.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            final MethodHandle handle = MethodHandles
+                .privateLookupIn(clazz, MethodHandles.lookup())
+                .unreflectConstructor(constructor.get())
+                .asSpreader(Object[].class, parameterTypes.length)
+                .asType(SPREAD_TYPE);
+            
+            final Class<?>[] types = Arrays.stream(parameterTypes).map(ValueConverter::boxedTypeOf).toArray(Class<?>[]::new);
+            final Object[] defaultValues = Arrays.stream(parameterTypes).map(ValueConverter::defaultValueOf).toArray();
+            return Optional.of(new ConstructorRowMapper<>(clazz, handle, types, defaultValues));
+        } catch (final IllegalAccessException | SecurityException exception) {
+            return Optional.empty();
+        }
+    }
+    
+    @Override
+    public T map(final Object[] values) {
+        final Object[] arguments = new Object[this.types.length];
+        for (int i = 0; i < arguments.length; ++i) {
+            final Object value = ValueConverter.convert(this.types[i], values[i]);
+            arguments[i] = value == null ? this.defaultValues[i] : value;
+        }
+        try {
+            return this.clazz.cast((Object) this.constructor.invokeExact(arguments));
+        } catch (final RuntimeException | Error exception) {
+            throw exception;
+        } catch (final Throwable throwable) {
+            throw new QueryException("Can't create instance of %s: %s", this.clazz.getSimpleName(), throwable.getMessage());
+        }
+    }
+}
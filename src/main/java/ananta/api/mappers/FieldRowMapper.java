@@ -0,0 +1,101 @@
+package ananta.api.mappers;
+
+import ananta.api.models.QueryException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Creates the object with its no-args constructor then writes every value straight to its field.
+ */
+class FieldRowMapper<T> implements RowMapper<T> {
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    
+    private final Class<T> clazz;
+    private final MethodHandle constructor;
+    private final MethodHandle[] setters;
+    private final Class<?>[] types;
+    private final boolean[] primitives;
+    
+    private FieldRowMapper(final Class<T> clazz, final MethodHandle constructor, final MethodHandle[] setters, final Class<?>[] types, final boolean[] primitives) {
+        this.clazz = clazz;
+        this.constructor = constructor;
+        this.setters = setters;
+        this.types = types;
+        this.primitives = primitives;
+    }
+    
+    /**
+     * Compile a mapper for certain class.
+     * @return empty if the class has no no-args constructor or one of the fields is final.
+     */
+    static <T> Optional<RowMapper<T>> compile(final Class<T> clazz, final List<Field> fields) {
+        if (Modifier.isAbstract(clazz.getModifiers())) {
+            return Optional.empty();
+        }
+        try {
+            final MethodHandle constructor = MethodHandles
+                .privateLookupIn(clazz, MethodHandles.lookup())
+                .findConstructor(clazz, MethodType.methodType(void.class))
+                .asType(CONSTRUCTOR_TYPE);
+            
+            final MethodHandle[] setters = new MethodHandle[fields.size()];
+            final Class<?>[] types = new Class<?>[fields.size()];
+            final boolean[] primitives = new boolean[fields.size()];
+            for (int i = 0; i < fields.size(); ++i) {
+                final Field field = fields.get(i);
+                if (Modifier.isFinal(field.getModifiers())) {
+                    return Optional.empty();
+                }
+                setters[i] = MethodHandles
+                    .privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectSetter(field)
+                    .asType(SETTER_TYPE);
+                types[i] = ValueConverter.boxedTypeOf(field.getType());
+                primitives[i] = field.getType().isPrimitive();
+            }
+            return Optional.of(new FieldRowMapper<>(clazz, constructor, setters, types, primitives));
+        } catch (final NoSuchMethodException | IllegalAccessException | SecurityException exception) {
+            return Optional.empty();
+        }
+    }
+    
+    @Override
+    public T map(final Object[] values) {
+        final Object object = this.newInstance();
+        for (int i = 0; i < this.setters.length; ++i) {
+            final Object value = ValueConverter.convert(this.types[i], values[i]);
+            if (value == null && this.primitives[i]) {
+                continue;
+            }
+            this.set(i, object, value);
+        }
+        return this.clazz.cast(object);
+    }
+    
+    private Object newInstance() {
+        try {
+            return (Object) this.constructor.invokeExact();
+        } catch (final RuntimeException | Error exception) {
+            throw exception;
+        } catch (final Throwable throwable) {
+            throw new QueryException("Can't create instance of %s: %s", this.clazz.getSimpleName(), throwable.getMessage());
+        }
+    }
+    
+    private void set(final int index, final Object object, final Object value) {
+        try {
+            this.setters[index].invokeExact(object, value);
+        } catch (final RuntimeException | Error exception) {
+            throw exception;
+        } catch (final Throwable throwable) {
+            throw new QueryException("Can't set value for %s: %s", this.clazz.getSimpleName(), throwable.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ananta.api.mappers;
+
+import ananta.api.helpers.CollectionHelper;
+import ananta.api.helpers.TypeHelper;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Maps a row by converting it to a json tree then reading the object back using Gson.
+ * It is slow but accepts every type that Gson accepts.
+ */
+class GsonRowMapper<T> implements RowMapper<T> {
+    private final Class<T> clazz;
+    private final List<String> fields;
+    
+    GsonRowMapper(final Class<T> clazz, final List<String> fields) {
+        this.clazz = clazz;
+        this.fields = fields;
+    }
+    
+    @Override
+    public T map(final Object[] values) {
+        final HashMap<String, Object> fieldValueMap = CollectionHelper.emptyMap();
+        for (int i = 0; i < this.fields.size(); ++i) {
+            fieldValueMap.put(this.fields.get(i), values[i]);
+        }
+        return TypeHelper.convertFromMapToObject(this.clazz, fieldValueMap);
+    }
+}
@@ -0,0 +1,15 @@
+package ananta.api.mappers;
+
+/**
+ * Thrown by compiled mappers when a row value can't be assigned to its target field without help.
+ * It never leaves this package, the row is mapped again using Gson instead.
+ */
+class IncompatibleValueException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    
+    static final IncompatibleValueException INSTANCE = new IncompatibleValueException();
+    
+    private IncompatibleValueException() {
+        super("Value is not compatible with the target field.", null, false, false);
+    }
+}
@@ -0,0 +1,291 @@
+package ananta.api.mappers;
+
+import ananta.api.annotations.SelectColumn;
+import ananta.api.annotations.SelectTable;
+import ananta.api.helpers.CollectionHelper;
+import ananta.api.helpers.ReflectionHelper;
+import ananta.api.helpers.TypeHelper;
+import ananta.api.models.EntityMetadata;
+import ananta.api.models.LongKeyMap;
+import ananta.api.models.QueryException;
+import ananta.api.models.TableJoin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * What is selected for a dto and how the rows become dtos. Its columns are read from the root table,
+ * or from the column given by {@link SelectColumn}, then come the columns of its nested objects, read from the joined tables given by {@link SelectTable}.
+ * <br/>
+ * Rows of a dto with a nested collection end with the id of the root: rows of the same id are
+ * assembled into one dto whose collection holds an object per row.
+ * <br/>
+ * A public dto without nested objects whose public constructor takes its fields in declaration order,
+ * like the canonical constructor of a record, can be created by the provider using a constructor expression.
+ * It is built once per class then reused.
+ */
+public class Projection<T> {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final Map<Class<?>, Projection<?>> PROJECTIONS = new ConcurrentHashMap<>();
+    
+    private final Class<T> clazz;
+    private final List<Field> fields;
+    private final List<TableJoin> columns;
+    private final List<Nest> nests;
+    private final Nest collectionNest;
+    private final Constructor<T> constructor;
+    
+    private Projection(final Class<T> clazz) {
+        this.clazz = clazz;
+        this.fields = EntityMetadata.of(clazz).getColumns();
+        
+        final List<TableJoin> columns = this.fields.stream().map(Projection::columnOf).collect(Collectors.toList());
+        final List<Nest> nests = CollectionHelper.emptyList();
+        for (final Field field : ReflectionHelper.getNonStaticFieldsOf(clazz)) {
+            final Optional<SelectTable> selectTable = ReflectionHelper.getAnnotation(SelectTable.class, field);
+            if (selectTable.isPresent()) {
+                final Nest nest = new Nest(field, selectTable.get().value(), columns.size());
+                nest.columns.forEach(column -> columns.add(TableJoin.builder().name(nest.tableName).column(column.getName()).build()));
+                nests.add(nest);
+            }
+        }
+        this.columns = List.copyOf(columns);
+        this.nests = List.copyOf(nests);
+        
+        final List<Nest> collectionNests = nests.stream().filter(nest -> nest.collectionFactory != null).collect(Collectors.toList());
+        if (collectionNests.size() > 1) {
+            throw new QueryException("%s can have at most one nested collection.", clazz.getSimpleName());
+        }
+        this.collectionNest = collectionNests.isEmpty() ? null : collectionNests.get(0);
+        this.constructor = nests.isEmpty() ? constructorOf(clazz, this.fields) : null;
+    }
+    
+    private static <T> Constructor<T> constructorOf(final Class<T> clazz, final List<Field> fields) {
+        final int modifiers = clazz.getModifiers();
+        final boolean isInnerClass = clazz.getEnclosingClass() != null && !Modifier.isStatic(modifiers);
+        if (!Modifier.isPublic(modifiers) || Modifier.isAbstract(modifiers) || isInnerClass || fields.isEmpty()) {
+            return null;
+        }
+        try {
+            return clazz.getConstructor(fields.stream().map(Field::getType).toArray(Class<?>[]::new));
+        } catch (final NoSuchMethodException | SecurityException exception) {
+            return null;
+        }
+    }
+    
+    private static TableJoin columnOf(final Field field) {
+        return ReflectionHelper.getAnnotation(SelectColumn.class, field)
+            .map(selectColumn -> TableJoin.of(selectColumn.value()))
+            .orElseGet(() -> TableJoin.of(field.getName()));
+    }
+    
+    /**
+     * Get the projection of a dto. It is built on the first call then reused.
+     * @param clazz can't be null.
+     * @throws QueryException if a nested field can't be filled.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Projection<T> of(final Class<T> clazz) {
+        TypeHelper.checkNull(clazz, "Can't project to a null class.");
+        return (Projection<T>) PROJECTIONS.computeIfAbsent(clazz, Projection::new);
+    }
+    
+    /**
+     * @return fields of the dto read from the root, in selection order.
+     */
+    public List<Field> getFields() {
+        return fields;
+    }
+    
+    /**
+     * @return selected columns, in selection order, as written in the dto. Columns of the root have no table name.
+     * The id of the root, needed by a nested collection, is not part of them.
+     */
+    public List<TableJoin> getColumns() {
+        return columns;
+    }
+    
+    /**
+     * @return joined tables the nested objects are read from.
+     */
+    public List<String> getNestedTableNames() {
+        return nests.stream().map(nest -> nest.tableName).collect(Collectors.toList());
+    }
+    
+    /**
+     * @return true if rows must end with the id of the root, so they can be grouped per dto.
+     */
+    public boolean hasCollection() {
+        return collectionNest != null;
+    }
+    
+    /**
+     * @return true if the dto may be created using a constructor expression. Whether it can depends on
+     * the types of the selected columns, see {@link #canConstruct(List)}.
+     */
+    public boolean hasConstructor() {
+        return constructor != null;
+    }
+    
+    /**
+     * Check that the provider can pass the selected columns to the constructor as they are. A column
+     * whose type only converts to its parameter must be mapped instead, and so must a nullable column
+     * passed to a primitive parameter.
+     * @param selectionTypes java types of the selected columns, in selection order.
+     */
+    public boolean canConstruct(final List<Class<?>> selectionTypes) {
+        if (this.constructor == null || selectionTypes.size() != this.constructor.getParameterCount()) {
+            return false;
+        }
+        final Class<?>[] parameterTypes = this.constructor.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            final Class<?> selectionType = selectionTypes.get(i);
+            final boolean isSameType = selectionType != null && ValueConverter.boxedTypeOf(parameterTypes[i]) == ValueConverter.boxedTypeOf(selectionType);
+            if (!isSameType || (parameterTypes[i].isPrimitive() && !selectionType.isPrimitive())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Convert a row to a dto. Its nested collection, if any, holds the object of this row only.
+     */
+    public T map(final Object[] row) {
+        final T item = this.mapParent(row);
+        if (this.collectionNest != null) {
+            final Collection<Object> children = this.collectionNest.newCollection();
+            this.collectionNest.mapChild(row).ifPresent(children::add);
+            this.collectionNest.set(item, children);
+        }
+        return item;
+    }
+    
+    /**
+     * Convert rows to dtos. With a nested collection, rows are grouped by the id of the root,
+     * which is the value after the columns, and dtos keep the order of their first row.
+     */
+    public List<T> mapAll(final List<Object[]> rows) {
+        if (this.collectionNest == null) {
+            return rows.stream().map(this::mapParent).collect(Collectors.toList());
+        }
+        
+        final int idIndex = this.columns.size();
+        final List<T> items = new ArrayList<>();
+        final LongKeyMap<Collection<Object>> childrenByNumberId = new LongKeyMap<>();
+        final Map<Object, Collection<Object>> childrenById = new HashMap<>();
+        for (final Object[] row : rows) {
+            final Object id = row[idIndex];
+            final boolean isNumberId = id instanceof Long || id instanceof Integer || id instanceof Short || id instanceof Byte;
+            
+            Collection<Object> children = isNumberId ? childrenByNumberId.get(((Number) id).longValue()) : childrenById.get(id);
+            if (children == null) {
+                final T item = this.mapParent(row);
+                children = this.collectionNest.newCollection();
+                this.collectionNest.set(item, children);
+                items.add(item);
+                
+                if (isNumberId) {
+                    childrenByNumberId.put(((Number) id).longValue(), children);
+                } else {
+                    childrenById.put(id, children);
+                }
+            }
+            this.collectionNest.mapChild(row).ifPresent(children::add);
+        }
+        return items;
+    }
+    
+    private T mapParent(final Object[] row) {
+        final T item = RowMappers.of(this.clazz, this.fields).map(row);
+        for (final Nest nest : this.nests) {
+            if (nest != this.collectionNest) {
+                nest.mapChild(row).ifPresent(child -> nest.set(item, child));
+            }
+        }
+        return item;
+    }
+    
+    /**
+     * Field of the dto filled with the columns of a joined table.
+     */
+    private static class Nest {
+        private final String tableName;
+        private final Class<?> type;
+        private final List<Field> columns;
+        private final int offset;
+        private final MethodHandle setter;
+        private final Supplier<Collection<Object>> collectionFactory;
+        
+        private Nest(final Field field, final String tableName, final int offset) {
+            if (Modifier.isFinal(field.getModifiers())) {
+                throw new QueryException("Nested field %s must not be final.", field.getName());
+            }
+            this.tableName = tableName;
+            this.offset = offset;
+            this.collectionFactory = ReflectionHelper.isCollection(field) ? collectionFactoryOf(field) : null;
+            this.type = this.collectionFactory == null
+                ? field.getType()
+                : ReflectionHelper.genericTypeOf(field.getGenericType()).orElseThrow(() -> new QueryException("Can't find element type of %s.", field.getName()));
+            this.columns = EntityMetadata.of(this.type).getColumns();
+            try {
+                this.setter = MethodHandles
+                    .privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectSetter(field)
+                    .asType(SETTER_TYPE);
+            } catch (final IllegalAccessException exception) {
+                throw new QueryException("Can't set nested field %s: %s", field.getName(), exception.getMessage());
+            }
+        }
+        
+        private static Supplier<Collection<Object>> collectionFactoryOf(final Field field) {
+            if (field.getType().isAssignableFrom(ArrayList.class)) {
+                return ArrayList::new;
+            }
+            if (field.getType().isAssignableFrom(LinkedHashSet.class)) {
+                return LinkedHashSet::new;
+            }
+            throw new QueryException("Nested collection %s must be a List, a Set or a Collection.", field.getName());
+        }
+        
+        private Collection<Object> newCollection() {
+            return this.collectionFactory.get();
+        }
+        
+        /**
+         * @return empty if every column of the table is null, which happens when nothing was joined.
+         */
+        private Optional<Object> mapChild(final Object[] row) {
+            final Object[] values = Arrays.copyOfRange(row, this.offset, this.offset + this.columns.size());
+            if (Arrays.stream(values).allMatch(value -> value == null)) {
+                return Optional.empty();
+            }
+            return Optional.of(RowMappers.of(this.type, this.columns).map(values));
+        }
+        
+        private void set(final Object item, final Object value) {
+            try {
+                this.setter.invokeExact(item, value);
+            } catch (final RuntimeException | Error exception) {
+                throw exception;
+            } catch (final Throwable throwable) {
+                throw new QueryException("Can't set nested field of %s: %s", item.getClass().getSimpleName(), throwable.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ananta.api.mappers;
+
+/**
+ * Turns one row returned by a criteria query into an object of the return type.
+ * Values are ordered the same way as the selected fields.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    
+    T map(Object[] values);
+}
@@ -0,0 +1,49 @@
+package ananta.api.mappers;
+
+import ananta.api.helpers.TypeHelper;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class RowMappers {
+    private static final Map<Class<?>, RowMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+    
+    private RowMappers() {}
+    
+    /**
+     * Get the mapper of certain class. The mapper is compiled on the first call then reused.
+     * It writes values directly to the fields or to the constructor of the class and only
+     * uses Gson when the class or one of the values can't be handled that way.
+     * @param clazz Class to map rows to. Can't be null.
+     * @param fields Fields that are selected, in the same order as the row values. Can't be null.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> of(final Class<T> clazz, final List<Field> fields) {
+        TypeHelper.checkNull(clazz, "Can't map rows to a null class.");
+        TypeHelper.checkNull(fields, "Fields must not be null.");
+        return (RowMapper<T>) MAPPERS.computeIfAbsent(clazz, key -> compile(clazz, fields));
+    }
+    
+    private static <T> RowMapper<T> compile(final Class<T> clazz, final List<Field> fields) {
+        final List<String> fieldNames = fields.stream().map(Field::getName).collect(Collectors.toList());
+        final RowMapper<T> gsonMapper = new GsonRowMapper<>(clazz, fieldNames);
+        
+        return FieldRowMapper.compile(clazz, fields)
+            .or(() -> ConstructorRowMapper.compile(clazz, fields))
+            .map(compiledMapper -> withFallback(compiledMapper, gsonMapper))
+            .orElse(gsonMapper);
+    }
+    
+    private static <T> RowMapper<T> withFallback(final RowMapper<T> compiledMapper, final RowMapper<T> fallbackMapper) {
+        return values -> {
+            try {
+                return compiledMapper.map(values);
+            } catch (final IncompatibleValueException exception) {
+                return fallbackMapper.map(values);
+            }
+        };
+    }
+}
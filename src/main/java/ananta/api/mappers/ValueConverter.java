@@ -0,0 +1,115 @@
+package ananta.api.mappers;
+
+import ananta.api.models.QueryException;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+class ValueConverter {
+    
+    private ValueConverter() {}
+    
+    /**
+     * Get the wrapper class of a type.
+     * @param type can be primitive or not.
+     * @return wrapper class if type is primitive. Otherwise, return the type itself.
+     */
+    static Class<?> boxedTypeOf(final Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+    
+    /**
+     * Get the value that the JVM gives to an unassigned field of certain type.
+     * @param type can be primitive or not.
+     * @return zero value of primitive type. Otherwise, return null.
+     */
+    static Object defaultValueOf(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        return Array.get(Array.newInstance(type, 1), 0);
+    }
+    
+    /**
+     * Convert a row value to the type of the field which will hold it.
+     * Only conversions that Gson would have done the same way are supported.
+     * @param boxedType type of the field, primitive types must be boxed.
+     * @param value can be null.
+     * @throws IncompatibleValueException if the value can't be converted.
+     * @throws QueryException if the number doesn't fit in the type of the field.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object convert(final Class<?> boxedType, final Object value) {
+        if (value == null || boxedType.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number) {
+            return convertNumber(boxedType, (Number) value);
+        }
+        if (boxedType == String.class && (value instanceof Enum || value instanceof Character)) {
+            return value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+        }
+        if (boxedType.isEnum() && value instanceof String) {
+            try {
+                return Enum.valueOf((Class<? extends Enum>) boxedType, (String) value);
+            } catch (final IllegalArgumentException exception) {
+                throw IncompatibleValueException.INSTANCE;
+            }
+        }
+        throw IncompatibleValueException.INSTANCE;
+    }
+    
+    /**
+     * Integer types are narrowed exactly, a value they can't hold is an error instead of a wrong value.
+     */
+    private static Object convertNumber(final Class<?> boxedType, final Number value) {
+        try {
+            if (boxedType == Long.class) {
+                return isIntegral(value) ? value.longValue() : exactOf(value).longValueExact();
+            }
+            if (boxedType == Integer.class) {
+                return isIntegral(value) ? Math.toIntExact(value.longValue()) : exactOf(value).intValueExact();
+            }
+            if (boxedType == Double.class) {
+                return value.doubleValue();
+            }
+            if (boxedType == Float.class) {
+                return value.floatValue();
+            }
+            if (boxedType == Short.class) {
+                return exactOf(value).shortValueExact();
+            }
+            if (boxedType == Byte.class) {
+                return exactOf(value).byteValueExact();
+            }
+            if (boxedType == BigDecimal.class) {
+                return exactOf(value);
+            }
+            if (boxedType == BigInteger.class) {
+                return exactOf(value).toBigIntegerExact();
+            }
+        } catch (final ArithmeticException | NumberFormatException exception) {
+            throw new QueryException("Can't convert %s to %s without changing its value.", value, boxedType.getSimpleName());
+        }
+        if (boxedType == String.class) {
+            return value.toString();
+        }
+        throw IncompatibleValueException.INSTANCE;
+    }
+    
+    private static boolean isIntegral(final Number value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+    
+    private static BigDecimal exactOf(final Number value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        return new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,139 @@
+package ananta.api.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps one histogram per operation, root entity and phase, plus the rows returned.
+ * Recording never locks, so it can be scraped while searches run.
+ */
+public class HistogramSearchMetrics implements SearchMetrics {
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    
+    HistogramSearchMetrics() {}
+    
+    @Override
+    public void onSearch(final SearchEvent event) {
+        this.series.computeIfAbsent(keyOf(event.getOperation(), event.getRootEntityName()), key -> new Series()).record(event);
+    }
+    
+    private static String keyOf(final String operation, final String rootEntityName) {
+        return operation + " " + rootEntityName;
+    }
+    
+    /**
+     * @return series recorded so far, by "operation rootEntityName", for example "list Order".
+     */
+    public Map<String, Series> getSeries() {
+        return Collections.unmodifiableMap(this.series);
+    }
+    
+    public void reset() {
+        this.series.clear();
+    }
+    
+    /**
+     * Measures of one operation on one root entity.
+     */
+    public static class Series {
+        private final Map<SearchPhase, Histogram> histograms = new EnumMap<>(SearchPhase.class);
+        private final Histogram total = new Histogram();
+        private final LongAdder rowCount = new LongAdder();
+        
+        private Series() {
+            for (final SearchPhase phase : SearchPhase.values()) {
+                this.histograms.put(phase, new Histogram());
+            }
+        }
+        
+        private void record(final SearchEvent event) {
+            for (final SearchPhase phase : SearchPhase.values()) {
+                this.histograms.get(phase).record(event.getNanos(phase));
+            }
+            this.total.record(event.getTotalNanos());
+            this.rowCount.add(event.getRowCount());
+        }
+        
+        public Histogram getHistogram(final SearchPhase phase) {
+            return this.histograms.get(phase);
+        }
+        
+        public Histogram getTotal() {
+            return this.total;
+        }
+        
+        public long getRowCount() {
+            return this.rowCount.sum();
+        }
+    }
+    
+    /**
+     * Durations counted in buckets of powers of two nanoseconds: bucket i holds durations
+     * from 2^(i-1) inclusive to 2^i exclusive, so percentiles are precise within a factor of two.
+     */
+    public static class Histogram {
+        private static final int BUCKET_COUNT = Long.SIZE;
+        
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        
+        private Histogram() {}
+        
+        private void record(final long nanos) {
+            final long value = Math.max(nanos, 0);
+            this.buckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(value));
+            this.count.increment();
+            this.totalNanos.add(value);
+        }
+        
+        public long getCount() {
+            return this.count.sum();
+        }
+        
+        public long getTotalNanos() {
+            return this.totalNanos.sum();
+        }
+        
+        public long getMeanNanos() {
+            final long count = this.getCount();
+            return count == 0 ? 0 : this.getTotalNanos() / count;
+        }
+        
+        /**
+         * @return number of durations of every bucket.
+         */
+        public long[] getBuckets() {
+            final long[] values = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                values[i] = this.buckets.get(i);
+            }
+            return values;
+        }
+        
+        /**
+         * @param percentile between 0 and 100.
+         * @return upper bound of the bucket holding the percentile, 0 when nothing was recorded.
+         */
+        public long getPercentileNanos(final double percentile) {
+            final long[] values = this.getBuckets();
+            long recorded = 0;
+            for (final long value : values) {
+                recorded += value;
+            }
+            final long rank = (long) Math.ceil(recorded * Math.min(Math.max(percentile, 0), 100) / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                seen += values[i];
+                if (seen >= rank && seen > 0) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return 0;
+        }
+    }
+}
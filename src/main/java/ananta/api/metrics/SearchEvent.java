@@ -0,0 +1,169 @@
+package ananta.api.metrics;
+
+import ananta.api.models.QueryClause;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measures of one terminal operation that has run a query, with what the query was made of.
+ */
+public class SearchEvent {
+    private final String operation;
+    private final Class<?> rootType;
+    private final Class<?> returnType;
+    private final String rootTable;
+    private final List<String> joinChain;
+    private final List<QueryClause> clauses;
+    private final Supplier<String> statement;
+    private final long[] phaseNanos;
+    private final long rowCount;
+    
+    private SearchEvent(final Builder builder) {
+        operation = builder.operation;
+        rootType = builder.rootType;
+        returnType = builder.returnType;
+        rootTable = builder.rootTable;
+        joinChain = builder.joinChain;
+        clauses = builder.clauses;
+        statement = builder.statement;
+        phaseNanos = builder.phaseNanos;
+        rowCount = builder.rowCount;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * @return list, page, first, count or exist.
+     */
+    public String getOperation() {
+        return operation;
+    }
+    
+    public Class<?> getRootType() {
+        return rootType;
+    }
+    
+    public String getRootEntityName() {
+        return rootType.getSimpleName();
+    }
+    
+    public Class<?> getReturnType() {
+        return returnType;
+    }
+    
+    public String getRootTable() {
+        return rootTable;
+    }
+    
+    /**
+     * @return tables joined after the root, in join order.
+     */
+    public List<String> getJoinChain() {
+        return joinChain;
+    }
+    
+    /**
+     * @return where clauses, folded from left to right by their and/or.
+     */
+    public List<QueryClause> getClauses() {
+        return clauses;
+    }
+    
+    /**
+     * @return the query as JPQL with its values. Rendered on every call, so only when needed.
+     */
+    public String getStatement() {
+        return statement.get();
+    }
+    
+    public long getNanos(final SearchPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+    
+    public Duration getDuration(final SearchPhase phase) {
+        return Duration.ofNanos(this.getNanos(phase));
+    }
+    
+    public long getTotalNanos() {
+        long total = 0;
+        for (final long nanos : phaseNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+    
+    /**
+     * @return number of rows returned by the database, 1 for a count.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+    
+    public static final class Builder {
+        private String operation;
+        private Class<?> rootType;
+        private Class<?> returnType;
+        private String rootTable;
+        private List<String> joinChain = List.of();
+        private List<QueryClause> clauses = List.of();
+        private Supplier<String> statement = () -> "";
+        private long[] phaseNanos = new long[SearchPhase.values().length];
+        private long rowCount;
+        
+        private Builder() {
+        }
+        
+        public Builder operation(final String val) {
+            operation = val;
+            return this;
+        }
+        
+        public Builder rootType(final Class<?> val) {
+            rootType = val;
+            return this;
+        }
+        
+        public Builder returnType(final Class<?> val) {
+            returnType = val;
+            return this;
+        }
+        
+        public Builder rootTable(final String val) {
+            rootTable = val;
+            return this;
+        }
+        
+        public Builder joinChain(final List<String> val) {
+            joinChain = List.copyOf(val);
+            return this;
+        }
+        
+        public Builder clauses(final List<QueryClause> val) {
+            clauses = List.copyOf(val);
+            return this;
+        }
+        
+        public Builder statement(final Supplier<String> val) {
+            statement = val;
+            return this;
+        }
+        
+        public Builder timer(final SearchTimer val) {
+            phaseNanos = val.getPhaseNanos();
+            return this;
+        }
+        
+        public Builder rowCount(final long val) {
+            rowCount = val;
+            return this;
+        }
+        
+        public SearchEvent build() {
+            return new SearchEvent(this);
+        }
+    }
+}
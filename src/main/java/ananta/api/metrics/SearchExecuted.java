@@ -0,0 +1,73 @@
+package ananta.api.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event spanning one terminal operation, from the join map init to the last mapped row.
+ * Disabled events cost a timestamp, nothing is recorded.
+ */
+@Name("ananta.api.SearchExecuted")
+@Label("Search Executed")
+@Category({"Ananta", "Search"})
+@Description("Terminal operation of a search criteria")
+@StackTrace(false)
+public class SearchExecuted extends Event {
+    @Label("Operation")
+    private String operation;
+    
+    @Label("DTO Type")
+    private Class<?> dtoType;
+    
+    @Label("Root Entity")
+    private String rootEntity;
+    
+    @Label("Clause Count")
+    private int clauseCount;
+    
+    @Label("Row Count")
+    private long rowCount;
+    
+    @Label("Join Map Init")
+    @Timespan(Timespan.NANOSECONDS)
+    private long joinMapInit;
+    
+    @Label("Criteria Construction")
+    @Timespan(Timespan.NANOSECONDS)
+    private long criteriaConstruction;
+    
+    @Label("Query Execution")
+    @Timespan(Timespan.NANOSECONDS)
+    private long queryExecution;
+    
+    @Label("Row Mapping")
+    @Timespan(Timespan.NANOSECONDS)
+    private long rowMapping;
+    
+    SearchExecuted() {}
+    
+    /**
+     * End the event and record it with the measures of the search, if flight recorder wants it.
+     */
+    void commit(final SearchEvent event) {
+        this.end();
+        if (!this.shouldCommit()) {
+            return;
+        }
+        this.operation = event.getOperation();
+        this.dtoType = event.getReturnType();
+        this.rootEntity = event.getRootEntityName();
+        this.clauseCount = event.getClauses().size();
+        this.rowCount = event.getRowCount();
+        this.joinMapInit = event.getNanos(SearchPhase.JOIN_MAP_INIT);
+        this.criteriaConstruction = event.getNanos(SearchPhase.CRITERIA_CONSTRUCTION);
+        this.queryExecution = event.getNanos(SearchPhase.QUERY_EXECUTION);
+        this.rowMapping = event.getNanos(SearchPhase.ROW_MAPPING);
+        this.commit();
+    }
+}
@@ -0,0 +1,55 @@
+package ananta.api.metrics;
+
+import ananta.api.helpers.TypeHelper;
+
+import java.time.Duration;
+
+/**
+ * Listener told about every query run by toList, toPage, findFirst, count and existAny.
+ * Results served by the cache run no query and are not reported.
+ * <br/>
+ * It is called on the thread which ran the query, right after it, so it must be fast and thread-safe.
+ */
+public interface SearchMetrics {
+    
+    void onSearch(SearchEvent event);
+    
+    /**
+     * @return listener telling this listener, then the other one.
+     */
+    default SearchMetrics andThen(final SearchMetrics other) {
+        TypeHelper.checkNull(other, "Metrics should not be null.");
+        return event -> {
+            this.onSearch(event);
+            other.onSearch(event);
+        };
+    }
+    
+    /**
+     * Ignore every event. This is the default.
+     */
+    static SearchMetrics noop() {
+        return event -> {};
+    }
+    
+    /**
+     * Record every event into lock-free histograms, see {@link HistogramSearchMetrics}.
+     */
+    static HistogramSearchMetrics histogram() {
+        return new HistogramSearchMetrics();
+    }
+    
+    /**
+     * Log searches slower than the threshold, at most {@link SlowSearchLog#DEFAULT_MAX_LOGS_PER_MINUTE} a minute.
+     */
+    static SlowSearchLog slowLog(final Duration threshold) {
+        return new SlowSearchLog(threshold, SlowSearchLog.DEFAULT_MAX_LOGS_PER_MINUTE);
+    }
+    
+    /**
+     * Log searches slower than the threshold, at most the given number a minute.
+     */
+    static SlowSearchLog slowLog(final Duration threshold, final int maxLogsPerMinute) {
+        return new SlowSearchLog(threshold, maxLogsPerMinute);
+    }
+}
@@ -0,0 +1,23 @@
+package ananta.api.metrics;
+
+/**
+ * Steps of a terminal operation, timed separately.
+ */
+public enum SearchPhase {
+    /**
+     * Selections, where clauses and orders of the criteria query.
+     */
+    CRITERIA_CONSTRUCTION,
+    /**
+     * Root and joins of the criteria query.
+     */
+    JOIN_MAP_INIT,
+    /**
+     * Database round trips, count queries included.
+     */
+    QUERY_EXECUTION,
+    /**
+     * Conversion of the result rows to items.
+     */
+    ROW_MAPPING
+}
@@ -0,0 +1,45 @@
+package ananta.api.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the conversion of the rows of a search to items.
+ */
+@Name("ananta.api.SearchRowsMapped")
+@Label("Search Rows Mapped")
+@Category({"Ananta", "Search"})
+@Description("Result rows of a search converted to items")
+@StackTrace(false)
+public class SearchRowsMapped extends Event {
+    @Label("DTO Type")
+    private Class<?> dtoType;
+    
+    @Label("Row Count")
+    private long rowCount;
+    
+    /**
+     * Start an event, to be ended by {@link #commit(Class, long)} once the rows are mapped.
+     */
+    public static SearchRowsMapped start() {
+        final SearchRowsMapped event = new SearchRowsMapped();
+        event.begin();
+        return event;
+    }
+    
+    private SearchRowsMapped() {}
+    
+    public void commit(final Class<?> dtoType, final long rowCount) {
+        this.end();
+        if (!this.shouldCommit()) {
+            return;
+        }
+        this.dtoType = dtoType;
+        this.rowCount = rowCount;
+        this.commit();
+    }
+}
@@ -0,0 +1,42 @@
+package ananta.api.metrics;
+
+/**
+ * Splits the time of one terminal operation into phases. Every lap adds the time elapsed since the
+ * previous lap to a phase, so the same phase can be timed several times.
+ * It also spans the {@link SearchExecuted} flight recorder event of the operation.
+ * Not thread-safe, a timer belongs to a single operation.
+ */
+public class SearchTimer {
+    private final long[] phaseNanos = new long[SearchPhase.values().length];
+    private final SearchExecuted executed = new SearchExecuted();
+    private long lastLap;
+    
+    private SearchTimer() {
+        this.executed.begin();
+        this.lastLap = System.nanoTime();
+    }
+    
+    public static SearchTimer start() {
+        return new SearchTimer();
+    }
+    
+    public void lap(final SearchPhase phase) {
+        final long now = System.nanoTime();
+        this.phaseNanos[phase.ordinal()] += now - this.lastLap;
+        this.lastLap = now;
+    }
+    
+    /**
+     * End the flight recorder event of the operation, which is recorded with the measures of the event.
+     */
+    public void commit(final SearchEvent event) {
+        this.executed.commit(event);
+    }
+    
+    /**
+     * @return nanoseconds spent in every phase, indexed by phase ordinal.
+     */
+    long[] getPhaseNanos() {
+        return this.phaseNanos.clone();
+    }
+}
@@ -0,0 +1,113 @@
+package ananta.api.metrics;
+
+import ananta.api.helpers.TypeHelper;
+import ananta.api.models.QueryClause;
+import ananta.api.models.QueryException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log, as a warning of the "ananta.api.SlowSearch" system logger, every search slower than a threshold:
+ * its root table, join chain, where clauses, JPQL, row count and phase timings.
+ * <br/>
+ * Logs are limited to a number a minute, so a slow database under load can't flood the logs.
+ * The number of searches left out is told by the next log.
+ */
+public class SlowSearchLog implements SearchMetrics {
+    public static final int DEFAULT_MAX_LOGS_PER_MINUTE = 10;
+    
+    private static final System.Logger LOGGER = System.getLogger("ananta.api.SlowSearch");
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+    
+    private final long thresholdNanos;
+    private final int maxLogsPerMinute;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong minuteAndLogCount = new AtomicLong();
+    private final AtomicLong skippedLogs = new AtomicLong();
+    
+    SlowSearchLog(final Duration threshold, final int maxLogsPerMinute) {
+        TypeHelper.checkNull(threshold, "Threshold must not be null.");
+        if (threshold.isNegative()) {
+            throw new QueryException("Threshold must not be negative.");
+        }
+        if (maxLogsPerMinute <= 0) {
+            throw new QueryException("Max logs per minute must be positive.");
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.maxLogsPerMinute = maxLogsPerMinute;
+    }
+    
+    @Override
+    public void onSearch(final SearchEvent event) {
+        if (event.getTotalNanos() < this.thresholdNanos || !LOGGER.isLoggable(System.Logger.Level.WARNING)) {
+            return;
+        }
+        if (!this.tryAcquire()) {
+            this.skippedLogs.incrementAndGet();
+            return;
+        }
+        LOGGER.log(System.Logger.Level.WARNING, this.toMessage(event, this.skippedLogs.getAndSet(0)));
+    }
+    
+    /**
+     * Count the log in the current minute, starting a new minute when the current one is over.
+     * The minute, in the high 32 bits, and its number of logs are packed in one long, so a new minute
+     * and its first log are set by the same compare and set.
+     */
+    private boolean tryAcquire() {
+        final long minute = (System.nanoTime() - this.startNanos) / WINDOW_NANOS;
+        while (true) {
+            final long state = this.minuteAndLogCount.get();
+            final long stateMinute = state >>> 32;
+            // Another thread may have started a later minute since this one read the time.
+            final long currentMinute = Math.max(minute, stateMinute);
+            final long logCount = stateMinute == currentMinute ? state & COUNT_MASK : 0;
+            if (logCount >= this.maxLogsPerMinute) {
+                return false;
+            }
+            if (this.minuteAndLogCount.compareAndSet(state, currentMinute << 32 | (logCount + 1))) {
+                return true;
+            }
+        }
+    }
+    
+    private String toMessage(final SearchEvent event, final long skippedLogs) {
+        final StringBuilder message = new StringBuilder("Slow search: ")
+            .append(event.getOperation())
+            .append(' ')
+            .append(event.getRootEntityName())
+            .append(" took ")
+            .append(toMillis(event.getTotalNanos()))
+            .append(" ms, ")
+            .append(event.getRowCount())
+            .append(" rows.");
+        
+        message.append("\n  phases:");
+        for (final SearchPhase phase : SearchPhase.values()) {
+            message.append(' ').append(phase.name().toLowerCase()).append('=').append(toMillis(event.getNanos(phase))).append("ms");
+        }
+        message.append("\n  root table: ").append(event.getRootTable());
+        message.append("\n  join chain: ").append(event.getRootTable());
+        event.getJoinChain().forEach(tableName -> message.append(" -> ").append(tableName));
+        message.append("\n  clauses:");
+        if (event.getClauses().isEmpty()) {
+            message.append(" none");
+        }
+        for (final QueryClause clause : event.getClauses()) {
+            message.append("\n    ").append(clause.toJpql());
+        }
+        message.append("\n  statement: ").append(event.getStatement());
+        if (skippedLogs > 0) {
+            message.append("\n  ").append(skippedLogs).append(" slow searches were not logged before this one.");
+        }
+        return message.toString();
+    }
+    
+    private static String toMillis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,324 @@
+package ananta.api.models;
+
+import ananta.api.helpers.CollectionHelper;
+import ananta.api.statics.ForAll;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForNumber;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Rewrites where clauses before they become a predicate, so the database gets a smaller statement.
+ * <br/>
+ * Clauses are folded from left to right, "a and b or c" meaning "(a and b) or c". They are cut into
+ * groups of clauses joined by the same operator, the operand before a group being everything before it.
+ * Clauses of a group can be reordered, so inside a group:
+ * <ul>
+ *     <li>identical clauses are removed,</li>
+ *     <li>EQUAL and IN on the same column joined by or become one IN,</li>
+ *     <li>ranges on the same column keep their tightest bounds when joined by and, their loosest when joined by or,</li>
+ *     <li>clauses which can't match, like an empty IN, an empty range or two EQUAL of different values joined by and,
+ *     make the group never match when joined by and, and are removed when joined by or.</li>
+ * </ul>
+ * Clauses whose value is a parameter are kept as they are, their value is not known yet.
+ * Values are only compared when Java compares them like the database does: integers, big numbers
+ * and dates. Strings, which depend on the collation, and floating point numbers are left to the database.
+ */
+public class ClauseOptimizer {
+    private static final Set<Class<?>> COMPARABLE_TYPES = CollectionHelper.setOf(
+        Byte.class, Short.class, Integer.class, Long.class, BigInteger.class, BigDecimal.class,
+        LocalDate.class, LocalTime.class, LocalDateTime.class, Instant.class
+    );
+    
+    private ClauseOptimizer() {}
+    
+    /**
+     * @param clauses clauses in the order they are folded. Can't be null.
+     * @return clauses to fold instead. Empty if they can't match any row, so no query needs to run.
+     */
+    public static Optional<List<QueryClause>> optimize(final List<QueryClause> clauses) {
+        final List<QueryClause> optimizedClauses = CollectionHelper.emptyList();
+        boolean isNeverMatched = false;
+        
+        for (final Group group : groupsOf(clauses)) {
+            final Optional<List<WhereClause>> groupClauses = optimizeGroup(group.clauses, group.isAnd);
+            final boolean isFirstGroup = optimizedClauses.isEmpty() && !isNeverMatched;
+            
+            if (isFirstGroup) {
+                isNeverMatched = groupClauses.isEmpty();
+                groupClauses.ifPresent(whereClauses -> addAll(optimizedClauses, whereClauses, group.isAnd));
+                continue;
+            }
+            if (group.isAnd) {
+                if (groupClauses.isEmpty()) {
+                    isNeverMatched = true;
+                    optimizedClauses.clear();
+                } else if (!isNeverMatched) {
+                    addAll(optimizedClauses, groupClauses.get(), true);
+                }
+                continue;
+            }
+            if (groupClauses.isPresent()) {
+                isNeverMatched = false;
+                addAll(optimizedClauses, groupClauses.get(), false);
+            }
+        }
+        return isNeverMatched ? Optional.empty() : Optional.of(optimizedClauses);
+    }
+    
+    private static List<Group> groupsOf(final List<QueryClause> clauses) {
+        final List<Group> groups = CollectionHelper.emptyList();
+        Group group = null;
+        for (int i = 0; i < clauses.size(); ++i) {
+            final QueryClause clause = clauses.get(i);
+            if (group == null) {
+                // The operator of the first clause is ignored, its group takes the operator of the second one.
+                final boolean isAnd = i + 1 >= clauses.size() || clauses.get(i + 1).isAndClause();
+                group = new Group(isAnd);
+                groups.add(group);
+            } else if (group.isAnd != clause.isAndClause()) {
+                group = new Group(clause.isAndClause());
+                groups.add(group);
+            }
+            group.clauses.add(clause.getClause());
+        }
+        return groups;
+    }
+    
+    private static void addAll(final List<QueryClause> clauses, final List<WhereClause> whereClauses, final boolean isAnd) {
+        for (final WhereClause whereClause : whereClauses) {
+            clauses.add(QueryClause.builder().isAndClause(isAnd || clauses.isEmpty()).clause(whereClause).build());
+        }
+    }
+    
+    /**
+     * @return empty if the group can't match any row.
+     */
+    private static Optional<List<WhereClause>> optimizeGroup(final List<WhereClause> clauses, final boolean isAnd) {
+        final List<WhereClause> uniqueClauses = CollectionHelper.emptyList();
+        final Set<String> fingerprints = new HashSet<>();
+        for (final WhereClause clause : clauses) {
+            if (clause.getParameterName().isPresent()) {
+                uniqueClauses.add(clause);
+                continue;
+            }
+            if (!fingerprints.add(clause.getFingerprint())) {
+                continue;
+            }
+            if (isNeverMatched(clause)) {
+                if (isAnd) {
+                    return Optional.empty();
+                }
+                continue;
+            }
+            uniqueClauses.add(clause);
+        }
+        
+        final List<WhereClause> mergedClauses = mergeRanges(isAnd ? uniqueClauses : mergeEquals(uniqueClauses), isAnd);
+        if (isAnd && hasContradiction(mergedClauses)) {
+            return Optional.empty();
+        }
+        return mergedClauses.isEmpty() ? Optional.empty() : Optional.of(mergedClauses);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static boolean isNeverMatched(final WhereClause clause) {
+        if (clause instanceof WhereClauseForNumber && ((WhereClauseForNumber) clause).getAction().isRange()) {
+            final WhereClauseForNumber range = (WhereClauseForNumber) clause;
+            if (!isComparable(range.getValue()) || range.getValue().getClass() != range.getToValue().getClass()) {
+                return false;
+            }
+            final int comparison = range.getValue().compareTo(range.getToValue());
+            return comparison > 0 || (comparison == 0 && range.getAction() == ForNumber.BETWEEN_HALF_OPEN);
+        }
+        return clause instanceof WhereClauseForCollection
+            && ((WhereClauseForCollection) clause).getAction() == ForCollection.IN
+            && ((WhereClauseForCollection) clause).getValue().isEmpty();
+    }
+    
+    /**
+     * Merge EQUAL and IN joined by or on the same column into one IN, where the first of them was.
+     * Values of different types are not merged, the provider may not bind them as one list.
+     */
+    private static List<WhereClause> mergeEquals(final List<WhereClause> clauses) {
+        final Map<String, Set<Serializable>> valuesByColumn = new LinkedHashMap<>();
+        final Map<String, Integer> countByColumn = new LinkedHashMap<>();
+        final Set<String> unmergeableColumns = new HashSet<>();
+        for (final WhereClause clause : clauses) {
+            final Optional<Collection<?>> values = valuesOf(clause);
+            if (values.isEmpty()) {
+                continue;
+            }
+            final String column = clause.getTable().getFingerprint();
+            final Set<Serializable> columnValues = valuesByColumn.computeIfAbsent(column, ignored -> new LinkedHashSet<>());
+            for (final Object value : values.get()) {
+                final boolean isSameType = value != null && (columnValues.isEmpty() || columnValues.iterator().next().getClass() == value.getClass());
+                if (!(value instanceof Serializable) || !isSameType) {
+                    unmergeableColumns.add(column);
+                    break;
+                }
+                columnValues.add((Serializable) value);
+            }
+            countByColumn.merge(column, 1, Integer::sum);
+        }
+        
+        final List<WhereClause> mergedClauses = CollectionHelper.emptyList();
+        final Set<String> mergedColumns = new HashSet<>();
+        for (final WhereClause clause : clauses) {
+            final String column = clause.getTable().getFingerprint();
+            final boolean isMerged = valuesOf(clause).isPresent() && countByColumn.get(column) > 1 && !unmergeableColumns.contains(column);
+            if (!isMerged) {
+                mergedClauses.add(clause);
+                continue;
+            }
+            if (mergedColumns.add(column)) {
+                mergedClauses.add(WhereClauseForCollection.builder()
+                    .table(clause.getTable())
+                    .action(ForCollection.IN)
+                    .value(valuesByColumn.get(column))
+                    .build());
+            }
+        }
+        return mergedClauses;
+    }
+    
+    /**
+     * @return values a column must be one of. Empty if the clause is not EQUAL or IN, or is a parameter.
+     */
+    private static Optional<Collection<?>> valuesOf(final WhereClause clause) {
+        if (clause.getParameterName().isPresent()) {
+            return Optional.empty();
+        }
+        if (clause instanceof WhereClauseForAll && ((WhereClauseForAll) clause).getAction() == ForAll.EQUAL) {
+            return Optional.of(List.of(clause.getValue()));
+        }
+        if (clause instanceof WhereClauseForCollection && ((WhereClauseForCollection) clause).getAction() == ForCollection.IN) {
+            return Optional.of(((WhereClauseForCollection) clause).getValue());
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Keep one lower and one upper bound per column, where the first of them was.
+     * Only bounds whose values have the same type are compared.
+     */
+    private static List<WhereClause> mergeRanges(final List<WhereClause> clauses, final boolean isAnd) {
+        final Map<String, Integer> boundIndexes = new LinkedHashMap<>();
+        final List<WhereClause> mergedClauses = CollectionHelper.emptyList();
+        for (final WhereClause clause : clauses) {
+            if (!isBound(clause)) {
+                mergedClauses.add(clause);
+                continue;
+            }
+            final WhereClauseForNumber bound = (WhereClauseForNumber) clause;
+            final String key = boundKeyOf(bound) + (isLowerBound(bound) ? " >" : " <");
+            final Integer index = boundIndexes.get(key);
+            if (index == null) {
+                boundIndexes.put(key, mergedClauses.size());
+                mergedClauses.add(bound);
+            } else if (isAnd == isTighter(bound, (WhereClauseForNumber) mergedClauses.get(index))) {
+                mergedClauses.set(index, bound);
+            }
+        }
+        return mergedClauses;
+    }
+    
+    /**
+     * @return true if clauses joined by and can't match any row: a lower bound above an upper bound,
+     * or two EQUAL of different values on the same column, compared with compareTo.
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean hasContradiction(final List<WhereClause> clauses) {
+        final Map<String, WhereClauseForNumber> lowerBounds = new LinkedHashMap<>();
+        final Map<String, Object> equalValues = new LinkedHashMap<>();
+        for (final WhereClause clause : clauses) {
+            if (isBound(clause) && isLowerBound((WhereClauseForNumber) clause)) {
+                lowerBounds.put(boundKeyOf((WhereClauseForNumber) clause), (WhereClauseForNumber) clause);
+            }
+            final boolean isEqual = clause instanceof WhereClauseForAll && ((WhereClauseForAll) clause).getAction() == ForAll.EQUAL;
+            if (isEqual && clause.getParameterName().isEmpty() && isComparable(clause.getValue())) {
+                final String key = clause.getTable().getFingerprint() + " " + clause.getValue().getClass().getName();
+                final Object value = equalValues.putIfAbsent(key, clause.getValue());
+                if (value != null && ((Comparable<Object>) value).compareTo(clause.getValue()) != 0) {
+                    return true;
+                }
+            }
+        }
+        for (final WhereClause clause : clauses) {
+            if (!isBound(clause) || isLowerBound((WhereClauseForNumber) clause)) {
+                continue;
+            }
+            final WhereClauseForNumber upperBound = (WhereClauseForNumber) clause;
+            final WhereClauseForNumber lowerBound = lowerBounds.get(boundKeyOf(upperBound));
+            if (lowerBound == null) {
+                continue;
+            }
+            final int comparison = lowerBound.getValue().compareTo(upperBound.getValue());
+            if (comparison > 0 || (comparison == 0 && (isStrict(lowerBound) || isStrict(upperBound)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isBound(final WhereClause clause) {
+        return clause instanceof WhereClauseForNumber
+            && !((WhereClauseForNumber) clause).getAction().isRange()
+            && clause.getParameterName().isEmpty()
+            && isComparable(clause.getValue());
+    }
+    
+    /**
+     * @return true if Java orders and equals the value like the database does, for example 1.0 and 1.00 are equal.
+     */
+    public static boolean isComparable(final Object value) {
+        return value != null && COMPARABLE_TYPES.contains(value.getClass());
+    }
+    
+    private static String boundKeyOf(final WhereClauseForNumber bound) {
+        return bound.getTable().getFingerprint() + " " + bound.getValue().getClass().getName();
+    }
+    
+    private static boolean isLowerBound(final WhereClauseForNumber bound) {
+        return bound.getAction() == ForNumber.LARGER_THAN || bound.getAction() == ForNumber.LARGER_THAN_OR_EQUAL;
+    }
+    
+    private static boolean isStrict(final WhereClauseForNumber bound) {
+        return bound.getAction() == ForNumber.LARGER_THAN || bound.getAction() == ForNumber.LESS_THAN;
+    }
+    
+    /**
+     * @return true if the bound lets fewer values through than the other bound of the same side.
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean isTighter(final WhereClauseForNumber bound, final WhereClauseForNumber other) {
+        final int comparison = bound.getValue().compareTo(other.getValue());
+        if (comparison == 0) {
+            return isStrict(bound) && !isStrict(other);
+        }
+        return isLowerBound(bound) ? comparison > 0 : comparison < 0;
+    }
+    
+    private static class Group {
+        private final boolean isAnd;
+        private final List<WhereClause> clauses = CollectionHelper.emptyList();
+        
+        private Group(final boolean isAnd) {
+            this.isAnd = isAnd;
+        }
+    }
+}
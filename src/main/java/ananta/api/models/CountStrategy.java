@@ -0,0 +1,104 @@
+package ananta.api.models;
+
+import ananta.api.helpers.StringHelper;
+import ananta.api.helpers.TypeHelper;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Decides how toPage gets the total number of rows.
+ * When the page is not full, the total is known from the page itself, so no strategy runs a count query.
+ */
+public interface CountStrategy {
+    
+    int CACHE_SIZE = 10_000;
+    
+    /**
+     * Runs count queries with the filters of the criteria.
+     */
+    interface Counter {
+        long count();
+        
+        /**
+         * Count rows but stop at the limit, so the database doesn't have to scan every row.
+         * @return the count if it is smaller than the limit, otherwise the limit.
+         */
+        long countUpTo(long limit);
+        
+        /**
+         * @return key which is the same for every criteria with the same tables and filters.
+         */
+        String getFingerprint();
+    }
+    
+    PageTotal countOf(Pageable page, int contentSize, Counter counter);
+    
+    /**
+     * Always give the exact total, counting only when the page is full.
+     */
+    static CountStrategy exact() {
+        return (page, contentSize, counter) -> totalOf(page, contentSize).orElseGet(() -> PageTotal.exact(counter.count()));
+    }
+    
+    /**
+     * Count up to the limit. If there are more rows, the total is the limit and is not exact.
+     * <br/>
+     * The count query stops after limit + 1 rows, which are sent to the client as one constant each, since
+     * JPA can't count inside a limited subquery. It is cheaper than an exact count of a large result, but
+     * a limit of millions reads millions of rows: keep it near the number of rows a user could page through.
+     */
+    static CountStrategy capped(final long limit) {
+        if (limit <= 0) {
+            throw new QueryException("Count limit must be positive.");
+        }
+        return (page, contentSize, counter) -> totalOf(page, contentSize).orElseGet(() -> {
+            final long count = counter.countUpTo(limit + 1);
+            return count > limit ? PageTotal.atLeast(limit) : PageTotal.exact(count);
+        });
+    }
+    
+    /**
+     * Never count. When the page is full, the total only tells that there is at least one more row.
+     */
+    static CountStrategy skipped() {
+        return (page, contentSize, counter) -> totalOf(page, contentSize)
+            .orElseGet(() -> PageTotal.atLeast(page.getOffset() + contentSize + 1));
+    }
+    
+    /**
+     * Reuse totals computed by another strategy for criteria with the same fingerprint.
+     * Exact totals are reused by every page, totals which are only a lower bound, like the ones of
+     * {@link #skipped()}, depend on the page so they are only reused by the same page.
+     * Fingerprints are hashed, so large IN lists don't make the keys large.
+     * @param strategy strategy computing the totals. Can't be null.
+     * @param ttl how long a total is reused. Can't be null.
+     */
+    static CountStrategy cached(final CountStrategy strategy, final Duration ttl) {
+        TypeHelper.checkNull(strategy, "Strategy must not be null.");
+        final ExpiringCache<String, PageTotal> cache = new ExpiringCache<>(ttl, CACHE_SIZE);
+        
+        return (page, contentSize, counter) -> totalOf(page, contentSize).orElseGet(() -> {
+            final String fingerprint = StringHelper.sha256Of(counter.getFingerprint());
+            final String pageFingerprint = fingerprint + " page " + page.getOffset() + "+" + page.getPageSize();
+            return cache.get(fingerprint).or(() -> cache.get(pageFingerprint)).orElseGet(() -> {
+                final PageTotal total = strategy.countOf(page, contentSize, counter);
+                cache.put(total.isExact() ? fingerprint : pageFingerprint, total);
+                return total;
+            });
+        });
+    }
+    
+    /**
+     * Get the total without counting. It is possible when the page is not full, unless it is
+     * an empty page after the first one since rows before it may have been deleted.
+     */
+    private static Optional<PageTotal> totalOf(final Pageable page, final int contentSize) {
+        final boolean isShortPage = contentSize < page.getPageSize() && (contentSize > 0 || page.getOffset() == 0);
+        if (isShortPage) {
+            return Optional.of(PageTotal.exact(page.getOffset() + contentSize));
+        }
+        return Optional.empty();
+    }
+}
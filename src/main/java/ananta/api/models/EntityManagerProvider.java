@@ -0,0 +1,44 @@
+package ananta.api.models;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.metamodel.Metamodel;
+
+/**
+ * Gives the entity manager that a terminal operation runs on.
+ */
+public interface EntityManagerProvider {
+    
+    EntityManager acquire();
+    
+    /**
+     * Called once the operation that acquired the entity manager is done with it.
+     */
+    void release(EntityManager entityManager);
+    
+    CriteriaBuilder getCriteriaBuilder();
+    
+    Metamodel getMetamodel();
+    
+    /**
+     * @return true if operations running at the same time get different entity managers.
+     */
+    boolean isConcurrent();
+    
+    /**
+     * Every operation runs on the same entity manager. Since entity managers are not thread-safe,
+     * operations must not run concurrently.
+     */
+    static EntityManagerProvider shared(final EntityManager entityManager) {
+        return new SharedEntityManagerProvider(entityManager);
+    }
+    
+    /**
+     * Every operation creates its own entity manager and closes it when it is done,
+     * so operations can run concurrently on different threads.
+     */
+    static EntityManagerProvider perCall(final EntityManagerFactory entityManagerFactory) {
+        return new FactoryEntityManagerProvider(entityManagerFactory);
+    }
+}
@@ -0,0 +1,164 @@
+package ananta.api.models;
+
+import ananta.api.annotations.SelectTable;
+import ananta.api.helpers.CollectionHelper;
+import ananta.api.helpers.CriteriaHelper;
+import ananta.api.helpers.ReflectionHelper;
+import ananta.api.helpers.TypeHelper;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
+import javax.persistence.ManyToMany;
+import javax.persistence.Table;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Everything the criteria needs to know about the fields of an entity or a dto.
+ * It is computed once per class then shared between threads, so queries never scan classes again.
+ */
+public class EntityMetadata {
+    private static final Map<Class<?>, EntityMetadata> REGISTRY = new ConcurrentHashMap<>();
+    
+    private final Class<?> clazz;
+    private final String tableName;
+    private final Field idField;
+    private final List<Field> columns;
+    private final Map<String, Field> columnFieldMap;
+    private final List<Field> relationshipFields;
+    private final Map<String, Field> joinTableFieldMap;
+    private final Map<Class<?>, Field> joinTargetFieldMap;
+    
+    private EntityMetadata(final Class<?> clazz) {
+        final List<Field> nonStaticFields = ReflectionHelper.getNonStaticFieldsOf(clazz);
+        
+        this.clazz = clazz;
+        this.tableName = ReflectionHelper.getAnnotation(Table.class, clazz).map(Table::name).orElse(null);
+        this.idField = nonStaticFields.stream()
+            .filter(field -> ReflectionHelper.hasAnnotation(Id.class, field) || ReflectionHelper.hasAnnotation(EmbeddedId.class, field))
+            .findFirst()
+            .orElse(null);
+        this.columns = nonStaticFields.stream()
+            .filter(field -> CriteriaHelper.isColumn(field) && !ReflectionHelper.hasAnnotation(SelectTable.class, field))
+            .collect(Collectors.toUnmodifiableList());
+        this.columnFieldMap = Collections.unmodifiableMap(columnFieldMapOf(nonStaticFields));
+        this.relationshipFields = nonStaticFields.stream().filter(CriteriaHelper::isMappingColumn).collect(Collectors.toUnmodifiableList());
+        this.joinTableFieldMap = Collections.unmodifiableMap(joinTableFieldMapOf(nonStaticFields));
+        this.joinTargetFieldMap = Collections.unmodifiableMap(joinTargetFieldMapOf(ReflectionHelper.getFieldsOf(clazz)));
+    }
+    
+    /**
+     * Get metadata of certain class. Metadata is built on the first call then reused.
+     * @param clazz can't be null.
+     */
+    public static EntityMetadata of(final Class<?> clazz) {
+        TypeHelper.checkNull(clazz, "Can't get metadata of a null class.");
+        return REGISTRY.computeIfAbsent(clazz, EntityMetadata::new);
+    }
+    
+    /**
+     * Build metadata of classes ahead of time, so the first queries don't have to.
+     * @param classes can't be null.
+     */
+    public static void register(final Collection<Class<?>> classes) {
+        TypeHelper.checkNull(classes, "Classes must not be null.");
+        classes.forEach(EntityMetadata::of);
+    }
+    
+    private static Map<String, Field> columnFieldMapOf(final List<Field> fields) {
+        final Map<String, Field> fieldMap = CollectionHelper.emptyMap();
+        for (final Field field : fields) {
+            fieldMap.putIfAbsent(field.getName(), field);
+            ReflectionHelper.getAnnotation(Column.class, field).ifPresent(column -> fieldMap.putIfAbsent(column.name(), field));
+        }
+        return fieldMap;
+    }
+    
+    private static Map<String, Field> joinTableFieldMapOf(final List<Field> fields) {
+        final Map<String, Field> fieldMap = CollectionHelper.emptyMap();
+        for (final Field field : fields) {
+            fieldMap.putIfAbsent(field.getName(), field);
+            
+            final Optional<JoinTable> joinTableAnnotation = ReflectionHelper.getAnnotation(JoinTable.class, field);
+            if (joinTableAnnotation.isPresent()) {
+                fieldMap.putIfAbsent(joinTableAnnotation.get().name(), field);
+                continue;
+            }
+            final Optional<JoinColumn> joinColumnAnnotation = ReflectionHelper.getAnnotation(JoinColumn.class, field);
+            if (joinColumnAnnotation.isPresent()) {
+                fieldMap.putIfAbsent(joinColumnAnnotation.get().name(), field);
+                continue;
+            }
+            ReflectionHelper.getAnnotation(ManyToMany.class, field).ifPresent(manyToMany -> fieldMap.putIfAbsent(manyToMany.mappedBy(), field));
+        }
+        return fieldMap;
+    }
+    
+    private static Map<Class<?>, Field> joinTargetFieldMapOf(final List<Field> fields) {
+        final Map<Class<?>, Field> fieldMap = CollectionHelper.emptyMap();
+        for (final Field field : fields) {
+            fieldMap.putIfAbsent(field.getType(), field);
+            if (ReflectionHelper.isCollection(field)) {
+                ReflectionHelper.genericTypeOf(field.getGenericType()).ifPresent(type -> fieldMap.putIfAbsent(type, field));
+            }
+        }
+        return fieldMap;
+    }
+    
+    public Class<?> getClazz() {
+        return clazz;
+    }
+    
+    public Optional<String> getTableName() {
+        return Optional.ofNullable(tableName);
+    }
+    
+    /**
+     * @return field annotated with @Id or @EmbeddedId. Empty if there is none.
+     */
+    public Optional<Field> getIdField() {
+        return Optional.ofNullable(idField);
+    }
+    
+    /**
+     * @return fields which can be selected, in declaration order.
+     */
+    public List<Field> getColumns() {
+        return columns;
+    }
+    
+    /**
+     * Find field based on its name or the name in its @Column annotation.
+     */
+    public Optional<Field> getColumnField(final String column) {
+        return Optional.ofNullable(this.columnFieldMap.get(column));
+    }
+    
+    public List<Field> getRelationshipFields() {
+        return relationshipFields;
+    }
+    
+    /**
+     * Find relationship field based on its name or the table it joins to
+     * (@JoinTable name, @JoinColumn name or @ManyToMany mappedBy).
+     */
+    public Optional<Field> getJoinTableField(final String tableName) {
+        return Optional.ofNullable(this.joinTableFieldMap.get(tableName));
+    }
+    
+    /**
+     * Find field whose type, or element type if it is a collection, is certain class.
+     */
+    public Optional<Field> getJoinTargetField(final Class<?> targetClass) {
+        return Optional.ofNullable(this.joinTargetFieldMap.get(targetClass));
+    }
+}
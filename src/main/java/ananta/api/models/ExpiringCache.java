@@ -0,0 +1,111 @@
+package ananta.api.models;
+
+import ananta.api.helpers.TypeHelper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Small thread-safe cache whose entries expire after some time.
+ * When it is full, the least recently used entry is evicted.
+ */
+public class ExpiringCache<K, V> {
+    private final Duration defaultTtl;
+    private final Map<K, Entry<V>> entries;
+    private volatile Consumer<K> removalListener = key -> {};
+    
+    public ExpiringCache(final Duration defaultTtl, final int maxSize) {
+        this(maxSize, defaultTtl);
+        checkTtl(defaultTtl);
+    }
+    
+    /**
+     * Create a cache without default time to live, so every entry has to be put with its own.
+     */
+    public ExpiringCache(final int maxSize) {
+        this(maxSize, null);
+    }
+    
+    private ExpiringCache(final int maxSize, final Duration defaultTtl) {
+        if (maxSize <= 0) {
+            throw new QueryException("Max size must be positive.");
+        }
+        this.defaultTtl = defaultTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+                final boolean isFull = this.size() > maxSize;
+                if (isFull) {
+                    ExpiringCache.this.removalListener.accept(eldest.getKey());
+                }
+                return isFull;
+            }
+        };
+    }
+    
+    /**
+     * Listener called with the key of every entry evicted because the cache is full, the entry expired or it was removed.
+     * It is called while the cache is locked, so it must not call the cache.
+     */
+    public void onRemoval(final Consumer<K> listener) {
+        TypeHelper.checkNull(listener, "Listener must not be null.");
+        this.removalListener = listener;
+    }
+    
+    private static void checkTtl(final Duration ttl) {
+        TypeHelper.checkNull(ttl, "Time to live must not be null.");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new QueryException("Time to live must be positive.");
+        }
+    }
+    
+    public synchronized Optional<V> get(final K key) {
+        final Entry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            this.entries.remove(key);
+            this.removalListener.accept(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value);
+    }
+    
+    public void put(final K key, final V value) {
+        TypeHelper.checkNull(this.defaultTtl, "Cache has no default time to live.");
+        this.put(key, value, this.defaultTtl);
+    }
+    
+    public synchronized void put(final K key, final V value, final Duration ttl) {
+        checkTtl(ttl);
+        this.entries.put(key, new Entry<>(value, System.nanoTime() + ttl.toNanos()));
+    }
+    
+    public synchronized void remove(final K key) {
+        if (this.entries.remove(key) != null) {
+            this.removalListener.accept(key);
+        }
+    }
+    
+    public synchronized int size() {
+        return this.entries.size();
+    }
+    
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+    
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        
+        private Entry(final V value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
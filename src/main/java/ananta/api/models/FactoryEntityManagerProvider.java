@@ -0,0 +1,44 @@
+package ananta.api.models;
+
+import ananta.api.helpers.TypeHelper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.metamodel.Metamodel;
+
+class FactoryEntityManagerProvider implements EntityManagerProvider {
+    private final EntityManagerFactory entityManagerFactory;
+    
+    FactoryEntityManagerProvider(final EntityManagerFactory entityManagerFactory) {
+        TypeHelper.checkNull(entityManagerFactory, "Entity manager factory should not be null.");
+        this.entityManagerFactory = entityManagerFactory;
+    }
+    
+    @Override
+    public EntityManager acquire() {
+        return this.entityManagerFactory.createEntityManager();
+    }
+    
+    @Override
+    public void release(final EntityManager entityManager) {
+        if (entityManager.isOpen()) {
+            entityManager.close();
+        }
+    }
+    
+    @Override
+    public CriteriaBuilder getCriteriaBuilder() {
+        return this.entityManagerFactory.getCriteriaBuilder();
+    }
+    
+    @Override
+    public Metamodel getMetamodel() {
+        return this.entityManagerFactory.getMetamodel();
+    }
+    
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package ananta.api.models;
+
+import java.util.Collection;
+
+/**
+ * Text identifying a query, used as a cache key. Every part is written with its length and every value
+ * with its class, so a value containing separators, like "a) and ForAll.EQUAL(id, 1", can't read as
+ * other parts, and 1 can't read as "1".
+ */
+public class Fingerprint {
+    private final StringBuilder text = new StringBuilder();
+    
+    public static Fingerprint of(final String kind) {
+        return new Fingerprint().add(kind);
+    }
+    
+    /**
+     * @param part can be null.
+     */
+    public Fingerprint add(final String part) {
+        if (part == null) {
+            this.text.append('-');
+            return this;
+        }
+        this.text.append(part.length()).append(':').append(part);
+        return this;
+    }
+    
+    /**
+     * Add a value with its class. The values of a collection are added one by one, the class of a value
+     * is only written when it differs from the class of the previous one.
+     * @param value can be null.
+     */
+    public Fingerprint addValue(final Object value) {
+        if (!(value instanceof Collection)) {
+            return value == null ? this.add(null) : this.add(value.getClass().getName()).add(value.toString());
+        }
+        final Collection<?> values = (Collection<?>) value;
+        this.text.append('[').append(values.size()).append(';');
+        Class<?> lastType = null;
+        for (final Object item : values) {
+            if (item == null) {
+                this.text.append('-');
+                continue;
+            }
+            if (item.getClass() == lastType) {
+                this.text.append('=');
+            } else {
+                lastType = item.getClass();
+                this.add(lastType.getName());
+            }
+            this.add(item.toString());
+        }
+        this.text.append(']');
+        return this;
+    }
+    
+    @Override
+    public String toString() {
+        return this.text.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package ananta.api.models;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import java.util.Locale;
+
+/**
+ * How LIKE_IGNORE_CASE, START_WITH_IGNORE_CASE and END_WITH_IGNORE_CASE compare strings.
+ * Only the column goes through the database function, the value is converted in Java, so an index
+ * on lower(column) or upper(column) can be used.
+ */
+public enum IgnoreCaseStrategy {
+    /**
+     * Compare lower(column) to the value in lower case. It is the default.
+     */
+    LOWER,
+    /**
+     * Compare upper(column) to the value in upper case.
+     */
+    UPPER;
+    
+    public Expression<String> apply(final CriteriaBuilder cb, final Expression<String> expression) {
+        return this == LOWER ? cb.lower(expression) : cb.upper(expression);
+    }
+    
+    public String apply(final String value) {
+        return this == LOWER ? value.toLowerCase(Locale.ROOT) : value.toUpperCase(Locale.ROOT);
+    }
+    
+    /**
+     * @return the column with the function, for example "lower(customers.name)".
+     */
+    public String toJpql(final String path) {
+        return this.name().toLowerCase(Locale.ROOT) + "(" + path + ")";
+    }
+}
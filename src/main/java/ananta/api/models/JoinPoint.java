@@ -9,11 +9,21 @@ public class JoinPoint {
     private final String tableName;
     private final Class<?> clazz;
     private final Field field;
+    private final Class<?> type;
+    private final String parentTableName;
+    private final boolean isFetched;
+    private final boolean isLeftJoin;
+    private final boolean isFilterOnly;
     
     private JoinPoint(final Builder builder) {
         tableName = builder.tableName;
         clazz = builder.clazz;
         field = builder.field;
+        type = field == null ? clazz : ReflectionHelper.getTypeOf(field).orElse(null);
+        parentTableName = builder.parentTableName;
+        isFetched = builder.isFetched;
+        isLeftJoin = builder.isLeftJoin || builder.isFetched;
+        isFilterOnly = builder.isFilterOnly;
     }
     
     public static Builder builder() {
@@ -29,20 +39,75 @@ public class JoinPoint {
     }
     
     public Optional<Class<?>> getType() {
-        if (field == null) {
-            return Optional.ofNullable(clazz);
-        }
-        return ReflectionHelper.getTypeOf(field);
+        return Optional.ofNullable(type);
     }
     
     public Field getField() {
         return field;
     }
     
+    /**
+     * @return table this one is joined from. Empty if it is joined from the previous join point.
+     */
+    public Optional<String> getParentTableName() {
+        return Optional.ofNullable(parentTableName);
+    }
+    
+    /**
+     * @return true if the relationship is loaded with the selected entities using a fetch join.
+     */
+    public boolean isFetched() {
+        return isFetched;
+    }
+    
+    /**
+     * @return true if rows without related row are kept. Fetched join points are always left joins.
+     */
+    public boolean isLeftJoin() {
+        return isLeftJoin;
+    }
+    
+    /**
+     * @return true if the table is only used by where clauses, so it is joined in an exists subquery
+     * instead of the query.
+     */
+    public boolean isFilterOnly() {
+        return isFilterOnly;
+    }
+    
+    /**
+     * @return true if the join can return several rows per row of the table it is joined from.
+     */
+    public boolean isCollection() {
+        return field != null && ReflectionHelper.isCollection(field);
+    }
+    
+    public JoinPoint withFetched() {
+        return JoinPoint.builder().tableName(tableName).clazz(clazz).field(field).parentTableName(parentTableName).isFetched(true).isLeftJoin(isLeftJoin).isFilterOnly(isFilterOnly).build();
+    }
+    
+    public JoinPoint withLeftJoin() {
+        return JoinPoint.builder().tableName(tableName).clazz(clazz).field(field).parentTableName(parentTableName).isFetched(isFetched).isLeftJoin(true).isFilterOnly(isFilterOnly).build();
+    }
+    
+    public JoinPoint withFilterOnly() {
+        return JoinPoint.builder().tableName(tableName).clazz(clazz).field(field).parentTableName(parentTableName).isFetched(isFetched).isLeftJoin(isLeftJoin).isFilterOnly(true).build();
+    }
+    
+    public String getFingerprint() {
+        final String fetch = isFilterOnly ? "exists" : (isFetched ? "fetch" : (isLeftJoin ? "left" : "inner"));
+        final String target = field == null ? clazz.getName() : field.getDeclaringClass().getName() + "." + field.getName();
+        return Fingerprint.of(tableName).add(target).add(parentTableName).add(fetch).toString();
+    }
+    
     public static final class Builder {
         private String tableName;
         private Class<?> clazz;
         private Field field;
+        private String parentTableName;
+        private boolean isFetched;
+        private boolean isLeftJoin;
+        private boolean isFilterOnly;
         
         private Builder() {
         }
@@ -62,6 +127,26 @@ public class JoinPoint {
             return this;
         }
         
+        public Builder parentTableName(final String val) {
+            parentTableName = val;
+            return this;
+        }
+        
+        public Builder isFetched(final boolean val) {
+            isFetched = val;
+            return this;
+        }
+        
+        public Builder isLeftJoin(final boolean val) {
+            isLeftJoin = val;
+            return this;
+        }
+        
+        public Builder isFilterOnly(final boolean val) {
+            isFilterOnly = val;
+            return this;
+        }
+        
         public JoinPoint build() {
             return new JoinPoint(this);
         }
@@ -1,23 +1,27 @@
 package ananta.api.models;
 
 import ananta.api.helpers.CollectionHelper;
-import ananta.api.helpers.ReflectionHelper;
 import ananta.api.helpers.StringHelper;
 
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 public class Joiner {
     private final List<JoinPoint> joinPoints = CollectionHelper.emptyList();
     
     private final Map<String, JoinPoint> joinPointMap = CollectionHelper.emptyMap();
     HashMap<String, From<?, ?>> joinMap = CollectionHelper.emptyMap();
+    private final Map<String, From<?, ?>> filterJoinMap = CollectionHelper.emptyMap();
     private JoinPoint rootJoin;
     private Root<?> root;
+    private CriteriaQuery<?> query;
     
     public JoinPoint getRootJoin() {
         return this.rootJoin;
@@ -27,6 +31,97 @@ public class Joiner {
         return this.root;
     }
     
+    /**
+     * @return join points after the root, in join order.
+     */
+    public List<JoinPoint> getJoinPoints() {
+        return Collections.unmodifiableList(this.joinPoints);
+    }
+    
+    /**
+     * Load the relationship of a declared join point with the selected entities.
+     */
+    public void fetch(final String tableName) {
+        this.replace(tableName, JoinPoint::withFetched);
+    }
+    
+    /**
+     * Keep rows without related row in a declared join point.
+     */
+    public void leftJoin(final String tableName) {
+        this.replace(tableName, JoinPoint::withLeftJoin);
+    }
+    
+    /**
+     * Only use a declared join point in where clauses, joining it in an exists subquery so the rows
+     * it is joined from are not repeated. Join points joined from it are in the subquery too.
+     */
+    public void filterOnly(final String tableName) {
+        final JoinPoint joinPoint = this.joinPointMap.get(tableName);
+        if (joinPoint != null && joinPoint.isFetched()) {
+            throw new QueryException("Table %s is fetched, it can't be only used to filter.", tableName);
+        }
+        this.replace(tableName, JoinPoint::withFilterOnly);
+    }
+    
+    private void replace(final String tableName, final UnaryOperator<JoinPoint> change) {
+        final JoinPoint joinPoint = this.joinPointMap.get(tableName);
+        if (joinPoint == null || joinPoint == this.rootJoin) {
+            throw new QueryException("Can't find joined table %s", tableName);
+        }
+        final JoinPoint newJoinPoint = change.apply(joinPoint);
+        this.joinPointMap.put(tableName, newJoinPoint);
+        this.joinPoints.set(this.joinPoints.indexOf(joinPoint), newJoinPoint);
+    }
+    
+    public boolean hasFetch() {
+        return this.joinPoints.stream().anyMatch(JoinPoint::isFetched);
+    }
+    
+    /**
+     * @return true if a fetched relationship is a collection, so the root rows are repeated.
+     */
+    public boolean hasCollectionFetch() {
+        return this.joinPoints.stream().anyMatch(joinPoint -> joinPoint.isFetched() && joinPoint.isCollection());
+    }
+    
+    public boolean hasFilterOnly() {
+        return this.joinPoints.stream().anyMatch(JoinPoint::isFilterOnly);
+    }
+    
+    /**
+     * @return true if the table is joined in the exists subquery, being filter only or joined from one.
+     */
+    public boolean isFilterOnly(final String tableName) {
+        return this.getFilterTableNames().contains(tableName);
+    }
+    
+    /**
+     * @return tables joined in the exists subquery: filter only join points and the ones joined from them.
+     */
+    private Set<String> getFilterTableNames() {
+        final Set<String> tableNames = new HashSet<>();
+        JoinPoint lastJoinPoint = this.rootJoin;
+        for (final JoinPoint joinPoint : this.joinPoints) {
+            final JoinPoint parentJoinPoint = joinPoint.getParentTableName().map(this.joinPointMap::get).orElse(lastJoinPoint);
+            if (joinPoint.isFilterOnly() || tableNames.contains(parentJoinPoint.getTableName())) {
+                tableNames.add(joinPoint.getTableName());
+            }
+            lastJoinPoint = nextImplicitParentOf(lastJoinPoint, joinPoint);
+        }
+        return tableNames;
+    }
+    
+    /**
+     * @return joiner with the same join points, whose joins are created by its own queries.
+     */
+    public Joiner copy() {
+        final Joiner joiner = new Joiner();
+        joiner.add(this.rootJoin);
+        this.joinPoints.forEach(joiner::add);
+        return joiner;
+    }
+    
     public void add(final JoinPoint joinPoint) {
         final boolean isJoinPoint = this.rootJoin == null && this.joinPoints.isEmpty();
         if (isJoinPoint) {
@@ -47,9 +142,22 @@ public class Joiner {
     }
     
     public From<?, ?>  getJoin(final String tableName) {
-        return Optional
-            .ofNullable(this.joinMap.get(tableName))
-            .orElseThrow(() -> new QueryException("Can't find table %s", tableName));
+        final From<?, ?> join = this.joinMap.get(tableName);
+        if (join != null) {
+            return join;
+        }
+        if (this.getFilterTableNames().contains(tableName)) {
+            throw new QueryException("Table %s is only used to filter, it can't be selected or sorted.", tableName);
+        }
+        throw new QueryException("Can't find table %s", tableName);
+    }
+    
+    /**
+     * Get join of a table used by a where clause, which may be joined in the exists subquery.
+     */
+    public From<?, ?> getFilterJoin(final String tableName) {
+        final From<?, ?> join = this.filterJoinMap.get(tableName);
+        return join != null ? join : this.getJoin(tableName);
     }
     
     
@@ -61,49 +169,185 @@ public class Joiner {
     }
     
     
+    /**
+     * @return join point the next join point without parent table is joined from.
+     */
     public JoinPoint getLast() {
-        return this.joinPoints.isEmpty() ? this.rootJoin : CollectionHelper.getLastElementOf(this.joinPoints);
+        JoinPoint lastJoinPoint = this.rootJoin;
+        for (final JoinPoint joinPoint : this.joinPoints) {
+            lastJoinPoint = nextImplicitParentOf(lastJoinPoint, joinPoint);
+        }
+        return lastJoinPoint;
+    }
+    
+    /**
+     * Join points without parent table are joined from the last one without parent table. Fetches of
+     * a relationship name their parent, so they are not the parent of the join points after them.
+     */
+    private static JoinPoint nextImplicitParentOf(final JoinPoint lastJoinPoint, final JoinPoint joinPoint) {
+        return joinPoint.getParentTableName().isPresent() ? lastJoinPoint : joinPoint;
+    }
+    
+    /**
+     * @return text which is the same for every joiner with the same tables joined the same way.
+     */
+    public String getFingerprint() {
+        final Fingerprint fingerprint = Fingerprint.of(this.rootJoin.getFingerprint());
+        for (final JoinPoint joinPoint : this.joinPoints) {
+            fingerprint.add(joinPoint.getFingerprint());
+        }
+        return fingerprint.toString();
     }
     
     public void initJoinMap(final CriteriaQuery<?> query) {
+        this.initJoinMap(query, false);
+    }
+    
+    /**
+     * Create the root and the joins of the query. Fetched join points are left joins, so entities
+     * without related rows are kept.
+     * @param withFetches true to create fetch joins for fetched join points. Only possible when the
+     * query selects the root entity.
+     */
+    public void initJoinMap(final CriteriaQuery<?> query, final boolean withFetches) {
         this.joinMap.clear();
+        this.filterJoinMap.clear();
         
         final Root<?> root = query.from(this.rootJoin.getClazz());
         this.root = root;
+        this.query = query;
         From<?, ?> lastJoin = root;
-        Class<?> lastClass = this.rootJoin.getClazz();
+        JoinPoint lastJoinPoint = this.rootJoin;
 
         this.joinMap.put(this.rootJoin.getTableName(), root);
         
+        final Set<String> filterTableNames = this.getFilterTableNames();
         for (final JoinPoint joinPoint : this.joinPoints) {
-            final Class<?> finalLastClass = lastClass;
+            if (filterTableNames.contains(joinPoint.getTableName())) {
+                lastJoinPoint = nextImplicitParentOf(lastJoinPoint, joinPoint);
+                continue;
+            }
+            final JoinPoint parentJoinPoint = joinPoint.getParentTableName().map(this.joinPointMap::get).orElse(lastJoinPoint);
+            final From<?, ?> parentJoin = joinPoint.getParentTableName().<From<?, ?>>map(this.joinMap::get).orElse(lastJoin);
+            final String fieldName = this.getJoinFieldName(parentJoinPoint.getType().orElse(null), joinPoint);
             
-            final String fieldName = Optional.ofNullable(joinPoint.getField())
-                .map(Field::getName)
-                .orElseGet(() -> this.getJoinField(finalLastClass, joinPoint.getClazz()).getName());
-            
-            final Join<?, ?> newJoin = lastJoin.join(fieldName);
+            final Join<?, ?> newJoin;
+            if (!joinPoint.isFetched()) {
+                newJoin = parentJoin.join(fieldName, joinPoint.isLeftJoin() ? JoinType.LEFT : JoinType.INNER);
+            } else if (withFetches) {
+                // Fetches of Hibernate, EclipseLink and OpenJPA are joins, so they can be filtered and sorted.
+                newJoin = (Join<?, ?>) parentJoin.fetch(fieldName, JoinType.LEFT);
+            } else {
+                newJoin = parentJoin.join(fieldName, JoinType.LEFT);
+            }
             this.joinMap.put(joinPoint.getTableName(), newJoin);
             
-            lastJoin = newJoin;
-            lastClass = joinPoint.getClazz();
+            if (joinPoint.getParentTableName().isEmpty()) {
+                lastJoin = newJoin;
+                lastJoinPoint = joinPoint;
+            }
         }
     }
     
+    /**
+     * Create the subquery joining the filter only tables of the query given to initJoinMap. It is
+     * correlated with the tables they are joined from, and its joins are given by getFilterJoin.
+     */
+    public Subquery<Integer> initFilterSubquery() {
+        final Subquery<Integer> subquery = this.query.subquery(Integer.class);
+        final Map<String, From<?, ?>> correlations = CollectionHelper.emptyMap();
+        final Set<String> filterTableNames = this.getFilterTableNames();
+        this.filterJoinMap.clear();
+        
+        JoinPoint lastJoinPoint = this.rootJoin;
+        for (final JoinPoint joinPoint : this.joinPoints) {
+            final JoinPoint parentJoinPoint = joinPoint.getParentTableName().map(this.joinPointMap::get).orElse(lastJoinPoint);
+            if (filterTableNames.contains(joinPoint.getTableName())) {
+                final String parentTableName = parentJoinPoint.getTableName();
+                final From<?, ?> parentJoin = filterTableNames.contains(parentTableName)
+                    ? this.filterJoinMap.get(parentTableName)
+                    : correlations.computeIfAbsent(parentTableName, name -> correlate(subquery, this.joinMap.get(name)));
+                final String fieldName = this.getJoinFieldName(parentJoinPoint.getType().orElse(null), joinPoint);
+                this.filterJoinMap.put(joinPoint.getTableName(), parentJoin.join(fieldName, JoinType.INNER));
+            }
+            lastJoinPoint = nextImplicitParentOf(lastJoinPoint, joinPoint);
+        }
+        return subquery;
+    }
     
-    private <LEFT, RIGHT> Field getJoinField(final Class<LEFT> lastClass, final Class<RIGHT> newTableClass) {
-        final List<Field> fields = ReflectionHelper.getFieldsOf(lastClass);
-        return fields.stream()
-            .filter(field -> {
-                if (Objects.equals(field.getType(), newTableClass)) {
-                    return true;
-                }
-                if (ReflectionHelper.isCollection(field)) {
-                    return ReflectionHelper.genericTypeOf(field.getGenericType()).map(newTableClass::equals).orElse(false);
-                }
-                return false;
-            })
-            .findFirst()
+    private static From<?, ?> correlate(final Subquery<?> subquery, final From<?, ?> from) {
+        return from instanceof Root ? subquery.correlate((Root<?>) from) : subquery.correlate((Join<?, ?>) from);
+    }
+    
+    /**
+     * @return the from part of the query as JPQL, for example "from Order orders join orders.customer customers".
+     */
+    public String toJpql() {
+        final StringBuilder jpql = new StringBuilder("from ")
+            .append(this.rootJoin.getClazz().getSimpleName())
+            .append(' ')
+            .append(this.rootJoin.getTableName());
+        
+        final Set<String> filterTableNames = this.getFilterTableNames();
+        JoinPoint lastJoinPoint = this.rootJoin;
+        for (final JoinPoint joinPoint : this.joinPoints) {
+            final JoinPoint parentJoinPoint = joinPoint.getParentTableName().map(this.joinPointMap::get).orElse(lastJoinPoint);
+            lastJoinPoint = nextImplicitParentOf(lastJoinPoint, joinPoint);
+            if (filterTableNames.contains(joinPoint.getTableName())) {
+                continue;
+            }
+            jpql.append(joinPoint.isFetched() ? " left join fetch " : (joinPoint.isLeftJoin() ? " left join " : " join "))
+                .append(parentJoinPoint.getTableName())
+                .append('.')
+                .append(this.getJoinFieldName(parentJoinPoint.getType().orElse(null), joinPoint))
+                .append(' ')
+                .append(joinPoint.getTableName());
+        }
+        return jpql.toString();
+    }
+    
+    /**
+     * @return the exists subquery joining the filter only tables as JPQL, for example
+     * "select 1 from customers.orders orders join orders.lines lines".
+     */
+    public String toFilterJpql() {
+        final StringBuilder jpql = new StringBuilder("select 1");
+        final Set<String> filterTableNames = this.getFilterTableNames();
+        boolean isFirst = true;
+        JoinPoint lastJoinPoint = this.rootJoin;
+        for (final JoinPoint joinPoint : this.joinPoints) {
+            final JoinPoint parentJoinPoint = joinPoint.getParentTableName().map(this.joinPointMap::get).orElse(lastJoinPoint);
+            lastJoinPoint = nextImplicitParentOf(lastJoinPoint, joinPoint);
+            if (!filterTableNames.contains(joinPoint.getTableName())) {
+                continue;
+            }
+            if (filterTableNames.contains(parentJoinPoint.getTableName())) {
+                jpql.append(" join ");
+            } else {
+                jpql.append(isFirst ? " from " : ", ");
+                isFirst = false;
+            }
+            jpql.append(parentJoinPoint.getTableName())
+                .append('.')
+                .append(this.getJoinFieldName(parentJoinPoint.getType().orElse(null), joinPoint))
+                .append(' ')
+                .append(joinPoint.getTableName());
+        }
+        return jpql.toString();
+    }
+    
+    private String getJoinFieldName(final Class<?> lastClass, final JoinPoint joinPoint) {
+        return Optional.ofNullable(joinPoint.getField())
+            .map(Field::getName)
+            .orElseGet(() -> this.getJoinField(lastClass, joinPoint.getClazz()).getName());
+    }
+    
+    private Field getJoinField(final Class<?> lastClass, final Class<?> newTableClass) {
+        if (lastClass == null) {
+            throw new QueryException("Can't find the table to join %s from.", newTableClass.getSimpleName());
+        }
+        return EntityMetadata.of(lastClass)
+            .getJoinTargetField(newTableClass)
             .orElseThrow(() -> new QueryException("Can't find the field to join between %s and %s.", lastClass.getSimpleName(), newTableClass.getSimpleName()));
     }
 }
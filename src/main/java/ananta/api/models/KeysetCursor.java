@@ -0,0 +1,140 @@
+package ananta.api.models;
+
+import ananta.api.helpers.TypeHelper;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a slice: the values of its sort keys, the id being the last one.
+ * It is passed to clients as an opaque string.
+ * <br/>
+ * Values are written without reflection: numbers, booleans and strings as they are, enums by name,
+ * java.time values as ISO-8601 text and dates as the ISO-8601 text of their instant.
+ */
+public class KeysetCursor {
+    private final Object[] values;
+    
+    private KeysetCursor(final Object[] values) {
+        this.values = values;
+    }
+    
+    public static KeysetCursor of(final Object[] values) {
+        TypeHelper.checkNull(values, "Cursor values must not be null.");
+        return new KeysetCursor(values.clone());
+    }
+    
+    /**
+     * Read a cursor created by {@link #encode()}.
+     * @param cursor can't be null.
+     * @param sortKeys keys that the cursor was created with.
+     * @throws QueryException if the cursor is malformed or doesn't match the keys.
+     */
+    public static KeysetCursor decode(final String cursor, final List<SortKey> sortKeys) {
+        TypeHelper.checkNull(cursor, "Cursor must not be null.");
+        try {
+            final String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final JsonArray array = TypeHelper.fromJson(json, JsonArray.class);
+            if (array.size() != sortKeys.size()) {
+                throw new QueryException("Cursor doesn't match the sort of this query.");
+            }
+            final Object[] values = new Object[array.size()];
+            for (int i = 0; i < values.length; ++i) {
+                final JsonElement element = array.get(i);
+                values[i] = element.isJsonNull() ? null : valueOf(element, sortKeys.get(i).getType());
+            }
+            return new KeysetCursor(values);
+        } catch (final QueryException exception) {
+            throw exception;
+        } catch (final RuntimeException exception) {
+            throw new QueryException("Invalid cursor: %s", exception.getMessage());
+        }
+    }
+    
+    /**
+     * @throws QueryException if a value is of a type a cursor can't hold.
+     */
+    public String encode() {
+        final JsonArray array = new JsonArray();
+        for (final Object value : this.values) {
+            array.add(jsonOf(value));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(array.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static JsonElement jsonOf(final Object value) {
+        if (value == null) {
+            return JsonNull.INSTANCE;
+        }
+        if (value instanceof Number) {
+            return new JsonPrimitive((Number) value);
+        }
+        if (value instanceof Boolean) {
+            return new JsonPrimitive((Boolean) value);
+        }
+        if (value instanceof Enum) {
+            return new JsonPrimitive(((Enum<?>) value).name());
+        }
+        if (value instanceof String || value instanceof Character || value instanceof UUID || value instanceof TemporalAccessor) {
+            return new JsonPrimitive(value.toString());
+        }
+        if (value instanceof java.sql.Date) {
+            return new JsonPrimitive(((java.sql.Date) value).toLocalDate().toString());
+        }
+        if (value instanceof Date) {
+            final Instant instant = value instanceof Timestamp ? ((Timestamp) value).toInstant() : Instant.ofEpochMilli(((Date) value).getTime());
+            return new JsonPrimitive(instant.toString());
+        }
+        throw new QueryException("Can't write sort values of type %s in a cursor.", value.getClass().getSimpleName());
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object valueOf(final JsonElement element, final Class<?> type) {
+        final Class<?> boxedType = MethodType.methodType(type).wrap().returnType();
+        if (Number.class.isAssignableFrom(boxedType) || boxedType == Boolean.class || boxedType == String.class || boxedType == Character.class) {
+            return TypeHelper.fromJson(element, boxedType);
+        }
+        final String text = element.getAsString();
+        if (boxedType.isEnum()) {
+            return Enum.valueOf((Class<Enum>) boxedType, text);
+        }
+        if (boxedType == UUID.class) {
+            return UUID.fromString(text);
+        }
+        if (boxedType == java.sql.Date.class) {
+            return java.sql.Date.valueOf(java.time.LocalDate.parse(text));
+        }
+        if (boxedType == Timestamp.class) {
+            return Timestamp.from(Instant.parse(text));
+        }
+        if (boxedType == Date.class) {
+            return Date.from(Instant.parse(text));
+        }
+        if (TemporalAccessor.class.isAssignableFrom(boxedType)) {
+            try {
+                return boxedType.getMethod("parse", CharSequence.class).invoke(null, text);
+            } catch (final InvocationTargetException exception) {
+                throw new QueryException("Invalid cursor: %s", exception.getCause().getMessage());
+            } catch (final ReflectiveOperationException exception) {
+                throw new QueryException("Can't read sort values of type %s from a cursor.", boxedType.getSimpleName());
+            }
+        }
+        throw new QueryException("Can't read sort values of type %s from a cursor.", boxedType.getSimpleName());
+    }
+    
+    public Object getValue(final int index) {
+        return this.values[index];
+    }
+}
@@ -0,0 +1,25 @@
+package ananta.api.models;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.Optional;
+
+public class KeysetSlice<T> extends SliceImpl<T> {
+    private static final long serialVersionUID = 1L;
+    
+    private final String nextCursor;
+    
+    public KeysetSlice(final List<T> content, final Pageable pageable, final String nextCursor) {
+        super(content, pageable, nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+    
+    /**
+     * @return cursor to pass to toSlice to get the next slice. Empty if this is the last slice.
+     */
+    public Optional<String> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+}
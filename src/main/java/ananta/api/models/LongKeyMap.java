@@ -0,0 +1,75 @@
+package ananta.api.models;
+
+import ananta.api.helpers.TypeHelper;
+
+/**
+ * Hash map whose keys are primitive longs, so looking up a number doesn't box it.
+ * Values can't be null. Not thread-safe.
+ */
+public class LongKeyMap<V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+    
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        final int mask = this.keys.length - 1;
+        for (int index = indexOf(key, mask); this.values[index] != null; index = (index + 1) & mask) {
+            if (this.keys[index] == key) {
+                return (V) this.values[index];
+            }
+        }
+        return null;
+    }
+    
+    public void put(final long key, final V value) {
+        TypeHelper.checkNull(value, "Value must not be null.");
+        if ((this.size + 1) * 2 > this.keys.length) {
+            this.resize();
+        }
+        if (insert(this.keys, this.values, key, value)) {
+            ++this.size;
+        }
+    }
+    
+    public int size() {
+        return this.size;
+    }
+    
+    private void resize() {
+        final long[] newKeys = new long[this.keys.length * 2];
+        final Object[] newValues = new Object[this.values.length * 2];
+        for (int i = 0; i < this.keys.length; ++i) {
+            if (this.values[i] != null) {
+                insert(newKeys, newValues, this.keys[i], this.values[i]);
+            }
+        }
+        this.keys = newKeys;
+        this.values = newValues;
+    }
+    
+    /**
+     * @return true if the key is new, false if its value was replaced.
+     */
+    private static boolean insert(final long[] keys, final Object[] values, final long key, final Object value) {
+        final int mask = keys.length - 1;
+        int index = indexOf(key, mask);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        return true;
+    }
+    
+    private static int indexOf(final long key, final int mask) {
+        return (int) ((key * GOLDEN_RATIO) >>> 32) & mask;
+    }
+}
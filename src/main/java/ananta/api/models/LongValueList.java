@@ -0,0 +1,77 @@
+package ananta.api.models;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * Sorted values without duplicates of a long or int column, held in a long array so a large list
+ * of ids doesn't keep a boxed number per value. Values are only boxed when they are read.
+ * It can't be modified.
+ */
+public class LongValueList extends AbstractList<Number> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final long[] values;
+    private final boolean isInt;
+    
+    private LongValueList(final long[] values, final boolean isInt) {
+        this.values = values;
+        this.isInt = isInt;
+    }
+    
+    /**
+     * @return sorted values without duplicates. Empty if the values are not all Long or all Integer.
+     */
+    public static Optional<LongValueList> of(final Collection<?> values) {
+        final Class<?> type = values.isEmpty() ? null : values.stream().findFirst().map(Object::getClass).orElse(null);
+        if (type != Long.class && type != Integer.class) {
+            return Optional.empty();
+        }
+        
+        final long[] sortedValues = new long[values.size()];
+        int size = 0;
+        for (final Object value : values) {
+            if (value == null || value.getClass() != type) {
+                return Optional.empty();
+            }
+            sortedValues[size++] = ((Number) value).longValue();
+        }
+        Arrays.sort(sortedValues);
+        
+        int distinctSize = 0;
+        for (int i = 0; i < size; ++i) {
+            if (distinctSize == 0 || sortedValues[i] != sortedValues[distinctSize - 1]) {
+                sortedValues[distinctSize++] = sortedValues[i];
+            }
+        }
+        return Optional.of(new LongValueList(distinctSize == size ? sortedValues : Arrays.copyOf(sortedValues, distinctSize), type == Integer.class));
+    }
+    
+    /**
+     * @return copy of the values from index "from", inclusive, to index "to", exclusive.
+     */
+    public LongValueList slice(final int from, final int to) {
+        return new LongValueList(Arrays.copyOfRange(this.values, from, to), this.isInt);
+    }
+    
+    @Override
+    public Number get(final int index) {
+        final long value = this.values[index];
+        return this.isInt ? Integer.valueOf((int) value) : Long.valueOf(value);
+    }
+    
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+    
+    @Override
+    public boolean contains(final Object value) {
+        final boolean isSameType = value != null && value.getClass() == (this.isInt ? Integer.class : Long.class);
+        return isSameType && Arrays.binarySearch(this.values, ((Number) value).longValue()) >= 0;
+    }
+}
@@ -0,0 +1,30 @@
+package ananta.api.models;
+
+/**
+ * Total number of rows of a page query, either exact or only a lower bound.
+ */
+public class PageTotal {
+    private final long value;
+    private final boolean isExact;
+    
+    private PageTotal(final long value, final boolean isExact) {
+        this.value = value;
+        this.isExact = isExact;
+    }
+    
+    public static PageTotal exact(final long value) {
+        return new PageTotal(value, true);
+    }
+    
+    public static PageTotal atLeast(final long value) {
+        return new PageTotal(value, false);
+    }
+    
+    public long getValue() {
+        return value;
+    }
+    
+    public boolean isExact() {
+        return isExact;
+    }
+}
@@ -22,6 +22,17 @@ public class QueryClause {
         return clause;
     }
     
+    public String getFingerprint() {
+        return Fingerprint.of(isAndClause ? "and" : "or").add(clause.getFingerprint()).toString();
+    }
+    
+    /**
+     * @return the clause as JPQL with its value, for example "and customers.name like 'a%'".
+     */
+    public String toJpql() {
+        return (isAndClause ? "and " : "or ") + clause.toJpql(clause.getTable().getFingerprint());
+    }
+    
     public static final class Builder {
         private boolean isAndClause;
         private WhereClause clause;
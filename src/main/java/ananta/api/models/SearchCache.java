@@ -0,0 +1,104 @@
+package ananta.api.models;
+
+import ananta.api.helpers.ReflectionHelper;
+import ananta.api.helpers.TypeHelper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of search results, shared by every criteria using cached(ttl).
+ * It holds at most a fixed number of results and evicts the least recently used one when it is full.
+ * <br/>
+ * Every result is tagged with the entities its query reads, so {@link #evict(Class)} drops exactly
+ * the results that a change of an entity can make stale. {@link SearchCacheListener} calls it on every
+ * persist, update and remove, and again after the commit when it is configured to.
+ */
+public class SearchCache {
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    
+    private static final Map<Class<?>, Set<String>> KEYS_BY_ENTITY = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, AtomicLong> VERSIONS_BY_ENTITY = new ConcurrentHashMap<>();
+    private static volatile ExpiringCache<String, Object> cache = newCache(DEFAULT_MAX_SIZE);
+    
+    private SearchCache() {}
+    
+    private static ExpiringCache<String, Object> newCache(final int maxSize) {
+        final ExpiringCache<String, Object> newCache = new ExpiringCache<>(maxSize);
+        newCache.onRemoval(key -> KEYS_BY_ENTITY.values().forEach(keys -> keys.remove(key)));
+        return newCache;
+    }
+    
+    /**
+     * Change the number of results the cache can hold. Cached results are dropped.
+     */
+    public static void configMaxSize(final int maxSize) {
+        cache = newCache(maxSize);
+        KEYS_BY_ENTITY.clear();
+    }
+    
+    /**
+     * Get the cached result of the key, or load it and cache it for the given time.
+     * @param key can't be null.
+     * @param ttl can't be null.
+     * @param entities entities read by the query. Can't be null.
+     * @param loader computes the result when it is not cached. Can't be null.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R get(final String key, final Duration ttl, final Set<Class<?>> entities, final Supplier<R> loader) {
+        TypeHelper.checkNull(key, "Key must not be null.");
+        TypeHelper.checkNull(entities, "Entities must not be null.");
+        TypeHelper.checkNull(loader, "Loader must not be null.");
+        
+        final ExpiringCache<String, Object> currentCache = cache;
+        final Optional<Object> cachedResult = currentCache.get(key);
+        if (cachedResult.isPresent()) {
+            return (R) cachedResult.get();
+        }
+        
+        final long versionBeforeLoad = versionOf(entities);
+        final R result = loader.get();
+        entities.forEach(entity -> KEYS_BY_ENTITY.computeIfAbsent(entity, ignored -> ConcurrentHashMap.newKeySet()).add(key));
+        currentCache.put(key, result, ttl);
+        
+        // An entity changed while loading, so the result may already be stale.
+        if (versionOf(entities) != versionBeforeLoad) {
+            currentCache.remove(key);
+        }
+        return result;
+    }
+    
+    private static long versionOf(final Set<Class<?>> entities) {
+        long version = 0;
+        for (final Class<?> entity : entities) {
+            version += VERSIONS_BY_ENTITY.computeIfAbsent(entity, ignored -> new AtomicLong()).get();
+        }
+        return version;
+    }
+    
+    /**
+     * Drop every result whose query reads the entity or one of its parent classes.
+     * @param entity can't be null.
+     */
+    public static void evict(final Class<?> entity) {
+        TypeHelper.checkNull(entity, "Entity must not be null.");
+        final ExpiringCache<String, Object> currentCache = cache;
+        for (final Class<?> clazz : ReflectionHelper.getAncestorClasses(entity)) {
+            VERSIONS_BY_ENTITY.computeIfAbsent(clazz, ignored -> new AtomicLong()).incrementAndGet();
+            final Set<String> keys = KEYS_BY_ENTITY.remove(clazz);
+            if (keys != null) {
+                keys.forEach(currentCache::remove);
+            }
+        }
+    }
+    
+    public static void clear() {
+        cache.clear();
+        KEYS_BY_ENTITY.clear();
+    }
+}
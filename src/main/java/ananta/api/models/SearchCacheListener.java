@@ -0,0 +1,45 @@
+package ananta.api.models;
+
+import ananta.api.helpers.TypeHelper;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.function.Consumer;
+
+/**
+ * Entity listener evicting the cached search results that read the changed entity.
+ * Register it with @EntityListeners(SearchCacheListener.class) on the entities, or as a
+ * default entity listener in orm.xml to cover all of them.
+ * <br/>
+ * The callbacks run at flush, before the commit, so a search running in between still reads the rows
+ * as they were and can cache them. Configure {@link #configAfterCompletion(Consumer)} to evict again
+ * once the transaction is over.
+ */
+public class SearchCacheListener {
+    private static volatile Consumer<Runnable> afterCompletion = eviction -> {};
+    
+    /**
+     * Registrar given every eviction to run again when the current transaction completes, for example with Spring:
+     * <pre>
+     * SearchCacheListener.configAfterCompletion(eviction -> TransactionSynchronizationManager.registerSynchronization(
+     *     new TransactionSynchronization() {
+     *         public void afterCompletion(int status) { eviction.run(); }
+     *     }));
+     * </pre>
+     * By default, results are only evicted at flush.
+     */
+    public static void configAfterCompletion(final Consumer<Runnable> registrar) {
+        TypeHelper.checkNull(registrar, "Registrar must not be null.");
+        afterCompletion = registrar;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(final Object entity) {
+        final Class<?> entityClass = entity.getClass();
+        SearchCache.evict(entityClass);
+        afterCompletion.accept(() -> SearchCache.evict(entityClass));
+    }
+}
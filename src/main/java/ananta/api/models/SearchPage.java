@@ -0,0 +1,24 @@
+package ananta.api.models;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public class SearchPage<T> extends PageImpl<T> {
+    private static final long serialVersionUID = 1L;
+    
+    private final boolean isTotalExact;
+    
+    public SearchPage(final List<T> content, final Pageable pageable, final PageTotal total) {
+        super(content, pageable, total.getValue());
+        this.isTotalExact = total.isExact();
+    }
+    
+    /**
+     * @return false if the count strategy only gave a lower bound of the total, for example "10,000+".
+     */
+    public boolean isTotalExact() {
+        return isTotalExact;
+    }
+}
@@ -0,0 +1,40 @@
+package ananta.api.models;
+
+import ananta.api.helpers.TypeHelper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.metamodel.Metamodel;
+
+class SharedEntityManagerProvider implements EntityManagerProvider {
+    private final EntityManager entityManager;
+    
+    SharedEntityManagerProvider(final EntityManager entityManager) {
+        TypeHelper.checkNull(entityManager, "Entity manager should not be null.");
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public EntityManager acquire() {
+        return this.entityManager;
+    }
+    
+    @Override
+    public void release(final EntityManager entityManager) {
+    }
+    
+    @Override
+    public CriteriaBuilder getCriteriaBuilder() {
+        return this.entityManager.getCriteriaBuilder();
+    }
+    
+    @Override
+    public Metamodel getMetamodel() {
+        return this.entityManager.getMetamodel();
+    }
+    
+    @Override
+    public boolean isConcurrent() {
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package ananta.api.models;
+
+public class SortKey {
+    private final TableJoin table;
+    private final Class<?> type;
+    private final boolean isAscending;
+    
+    private SortKey(final Builder builder) {
+        table = builder.table;
+        type = builder.type;
+        isAscending = builder.isAscending;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public TableJoin getTable() {
+        return table;
+    }
+    
+    public Class<?> getType() {
+        return type;
+    }
+    
+    public boolean isAscending() {
+        return isAscending;
+    }
+    
+    public static final class Builder {
+        private TableJoin table;
+        private Class<?> type;
+        private boolean isAscending;
+        
+        private Builder() {
+        }
+        
+        public Builder table(final TableJoin val) {
+            table = val;
+            return this;
+        }
+        
+        public Builder type(final Class<?> val) {
+            type = val;
+            return this;
+        }
+        
+        public Builder isAscending(final boolean val) {
+            isAscending = val;
+            return this;
+        }
+        
+        public SortKey build() {
+            return new SortKey(this);
+        }
+    }
+}
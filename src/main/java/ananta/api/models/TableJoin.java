@@ -45,6 +45,10 @@ public class TableJoin {
         return StringHelper.isBlank(name) ? otherName : name;
     }
     
+    public String getFingerprint() {
+        return StringHelper.isBlank(name) ? column : name + SEPARATOR + column;
+    }
+    
     public static final class Builder {
         private String name;
         private String column;
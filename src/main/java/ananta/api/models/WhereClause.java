@@ -3,9 +3,37 @@ package ananta.api.models;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Predicate;
+import java.util.Optional;
 
 public interface WhereClause {
     
     TableJoin getTable();
+    Object getValue();
     Predicate getPredicate(final CriteriaBuilder cb, From<?, ?> join);
+    
+    /**
+     * @return name of the parameter holding the value. Empty if the value is inlined in the query.
+     */
+    Optional<String> getParameterName();
+    
+    /**
+     * @return copy of the clause whose value is read from a parameter when the query runs.
+     */
+    WhereClause withParameterName(String parameterName);
+    
+    /**
+     * Convert the value given by the user to the value bound to the parameter.
+     */
+    Object toParameterValue(Object value);
+    
+    /**
+     * @param path path of the column, for example "orders.amount".
+     * @return the clause as JPQL, for example "orders.amount > 5".
+     */
+    String toJpql(String path);
+    
+    /**
+     * @return text which is the same for every clause with the same table, action and value.
+     */
+    String getFingerprint();
 }
@@ -1,11 +1,13 @@
 package ananta.api.models;
 
+import ananta.api.helpers.CriteriaHelper;
 import ananta.api.statics.ForAll;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Predicate;
+import java.util.Optional;
 
 public class WhereClauseForAll implements WhereClause{
     private static final QueryException QUERY_TYPE_NOT_ACCEPTED = new QueryException("Action not accepted.");
@@ -13,11 +15,13 @@ public class WhereClauseForAll implements WhereClause{
     private final TableJoin table;
     private final ForAll action;
     private final Object value;
+    private final String parameterName;
     
     private WhereClauseForAll(final Builder builder) {
         table = builder.table;
         action = builder.action;
         value = builder.value;
+        parameterName = builder.parameterName;
     }
     
     public static Builder builder() {
@@ -29,23 +33,65 @@ public class WhereClauseForAll implements WhereClause{
         return table;
     }
     
+    public ForAll getAction() {
+        return action;
+    }
+    
+    @Override
+    public Object getValue() {
+        return value;
+    }
+    
+    @Override
+    public Optional<String> getParameterName() {
+        return Optional.ofNullable(parameterName);
+    }
+    
+    @Override
+    public WhereClauseForAll withParameterName(final String parameterName) {
+        return WhereClauseForAll.builder().table(table).action(action).value(value).parameterName(parameterName).build();
+    }
+    
     @Override
     public Predicate getPredicate(final CriteriaBuilder cb, From<?, ?> join) {
         Expression<Object> expression = join.get(table.getColumn());
+        Expression<?> valueExpression = parameterName == null ? cb.literal(value) : cb.parameter(value.getClass(), parameterName);
         
         switch (action) {
             case EQUAL:
-                return cb.equal(expression, value);
+                return cb.equal(expression, valueExpression);
+            case NOT_EQUAL:
+                return cb.notEqual(expression, valueExpression);
+        }
+        throw QUERY_TYPE_NOT_ACCEPTED;
+    }
+    
+    @Override
+    public Object toParameterValue(final Object value) {
+        return value;
+    }
+    
+    @Override
+    public String toJpql(final String path) {
+        switch (action) {
+            case EQUAL:
+                return path + " = " + CriteriaHelper.toJpqlValue(value, parameterName);
             case NOT_EQUAL:
-                return cb.notEqual(expression, value);
+                return path + " <> " + CriteriaHelper.toJpqlValue(value, parameterName);
         }
         throw QUERY_TYPE_NOT_ACCEPTED;
     }
     
+    @Override
+    public String getFingerprint() {
+        return Fingerprint.of("ForAll." + action).add(table.getFingerprint()).addValue(value).add(parameterName).toString();
+    }
+    
     public static final class Builder {
         private TableJoin table;
         private ForAll action;
         private Object value;
+        private String parameterName;
         
         private Builder() {
         }
@@ -65,6 +111,11 @@ public class WhereClauseForAll implements WhereClause{
             return this;
         }
         
+        public Builder parameterName(final String val) {
+            parameterName = val;
+            return this;
+        }
+        
         public WhereClauseForAll build() {
             return new WhereClauseForAll(this);
         }
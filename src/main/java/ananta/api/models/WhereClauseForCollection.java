@@ -1,53 +1,147 @@
 package ananta.api.models;
 
+import ananta.api.helpers.CriteriaHelper;
 import ananta.api.statics.ForCollection;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Predicate;
+import java.util.Optional;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeSet;
 
+/**
+ * IN and NOT_IN clauses. Values are bound sorted and without duplicates, so the same values always give
+ * the same statement, and long or int values are held in a {@link LongValueList}.
+ */
 public class WhereClauseForCollection implements WhereClause{
     private static final QueryException QUERY_TYPE_NOT_ACCEPTED = new QueryException("Action not accepted.");
     private final TableJoin table;
     private final ForCollection action;
     private final Collection<? extends Serializable> value;
+    private final String parameterName;
+    private String fingerprint;
     
     private WhereClauseForCollection(final Builder builder) {
         table = builder.table;
         action = builder.action;
-        value = builder.value;
+        value = distinctSortedValuesOf(builder.value);
+        parameterName = builder.parameterName;
     }
     
     public static Builder builder() {
         return new Builder();
     }
     
+    /**
+     * Values which are not all of the same comparable type keep their order.
+     */
+    private static Collection<? extends Serializable> distinctSortedValuesOf(final Collection<? extends Serializable> values) {
+        if (values == null || values instanceof LongValueList) {
+            return values;
+        }
+        final Optional<LongValueList> longValues = LongValueList.of(values);
+        if (longValues.isPresent()) {
+            return longValues.get();
+        }
+        final Class<?> type = values.stream().findFirst().map(Object::getClass).orElse(null);
+        final boolean isSortable = values.stream().allMatch(value -> value instanceof Comparable && value.getClass() == type);
+        return new ArrayList<>(isSortable ? new TreeSet<>(values) : new LinkedHashSet<>(values));
+    }
+    
     @Override
     public TableJoin getTable() {
         return table;
     }
     
+    public ForCollection getAction() {
+        return action;
+    }
+    
+    @Override
+    public Collection<? extends Serializable> getValue() {
+        return value;
+    }
+    
+    @Override
+    public Optional<String> getParameterName() {
+        return Optional.ofNullable(parameterName);
+    }
+    
+    @Override
+    public WhereClauseForCollection withParameterName(final String parameterName) {
+        return WhereClauseForCollection.builder().table(table).action(action).value(value).parameterName(parameterName).build();
+    }
+    
+    /**
+     * @return clauses of at most chunkSize values each, whose values together are the values of this clause.
+     */
+    public List<WhereClauseForCollection> split(final int chunkSize) {
+        final List<WhereClauseForCollection> clauses = new ArrayList<>();
+        final List<? extends Serializable> values = value instanceof List ? (List<? extends Serializable>) value : new ArrayList<>(value);
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            final int to = Math.min(from + chunkSize, values.size());
+            final Collection<? extends Serializable> chunk = values instanceof LongValueList
+                ? ((LongValueList) values).slice(from, to)
+                : new ArrayList<>(values.subList(from, to));
+            clauses.add(WhereClauseForCollection.builder().table(table).action(action).value(chunk).parameterName(parameterName).build());
+        }
+        return clauses;
+    }
+    
     @Override
     public Predicate getPredicate(final CriteriaBuilder cb, From<?, ?> join) {
         Expression<Object> expression = join.get(table.getColumn());
+        Predicate inPredicate = parameterName == null ? expression.in(value) : expression.in(cb.parameter(Collection.class, parameterName));
         
         switch (action) {
             case IN:
-                return expression.in(value);
-//            case NOT_IN:
-//                return cb.in(expression, value);
+                return inPredicate;
+            case NOT_IN:
+                return cb.not(inPredicate);
         }
         throw QUERY_TYPE_NOT_ACCEPTED;
     }
     
     
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object toParameterValue(final Object value) {
+        return value instanceof Collection ? distinctSortedValuesOf((Collection<? extends Serializable>) value) : value;
+    }
+    
+    @Override
+    public String toJpql(final String path) {
+        switch (action) {
+            case IN:
+                return path + " in " + CriteriaHelper.toJpqlValue(value, parameterName);
+            case NOT_IN:
+                return path + " not in " + CriteriaHelper.toJpqlValue(value, parameterName);
+        }
+        throw QUERY_TYPE_NOT_ACCEPTED;
+    }
+    
+    /**
+     * Built once, as the values can be many and it is read by every pass of the optimizer and chunking.
+     */
+    @Override
+    public String getFingerprint() {
+        if (fingerprint == null) {
+            fingerprint = Fingerprint.of("ForCollection." + action).add(table.getFingerprint()).addValue(value).add(parameterName).toString();
+        }
+        return fingerprint;
+    }
+    
     public static final class Builder {
         private TableJoin table;
         private ForCollection action;
         private Collection<? extends Serializable> value;
+        private String parameterName;
         
         private Builder() {
         }
@@ -67,6 +161,11 @@ public class WhereClauseForCollection implements WhereClause{
             return this;
         }
         
+        public Builder parameterName(final String val) {
+            parameterName = val;
+            return this;
+        }
+        
         public WhereClauseForCollection build() {
             return new WhereClauseForCollection(this);
         }
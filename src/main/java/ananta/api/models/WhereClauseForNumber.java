@@ -1,22 +1,36 @@
 package ananta.api.models;
 
+import ananta.api.helpers.CriteriaHelper;
 import ananta.api.statics.ForNumber;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Predicate;
+import java.util.Optional;
 
+/**
+ * Comparisons with a value, or ranges between two values rendered as one predicate. Values can be
+ * numbers or any comparable, like LocalDate or Instant.
+ */
 public class WhereClauseForNumber implements WhereClause {
+    /**
+     * Suffix of the parameter holding the end of a range, the start being the parameter itself.
+     */
+    public static final String TO_PARAMETER_SUFFIX = "_to";
     private static final QueryException QUERY_TYPE_NOT_ACCEPTED = new QueryException("Action not accepted.");
     private final TableJoin table;
     private final ForNumber action;
     private final Comparable value;
+    private final Comparable<?> toValue;
+    private final String parameterName;
     
     private WhereClauseForNumber(final Builder builder) {
         table = builder.table;
         action = builder.action;
         value = builder.value;
+        toValue = builder.toValue;
+        parameterName = builder.parameterName;
     }
     
     public static Builder builder() {
@@ -28,27 +42,98 @@ public class WhereClauseForNumber implements WhereClause {
         return table;
     }
     
+    public ForNumber getAction() {
+        return action;
+    }
+    
+    @Override
+    public Comparable getValue() {
+        return value;
+    }
+    
+    /**
+     * @return end of the range. Null if the action is not a range.
+     */
+    public Comparable<?> getToValue() {
+        return toValue;
+    }
+    
+    @Override
+    public Optional<String> getParameterName() {
+        return Optional.ofNullable(parameterName);
+    }
+    
+    @Override
+    public WhereClauseForNumber withParameterName(final String parameterName) {
+        return WhereClauseForNumber.builder().table(table).action(action).value(value).toValue(toValue).parameterName(parameterName).build();
+    }
+    
     @Override
     public Predicate getPredicate(final CriteriaBuilder cb, From<?, ?> join) {
         Expression<? extends Comparable> expression = join.get(table.getColumn());
+        Expression<? extends Comparable> valueExpression = parameterName == null ? cb.literal(value) : cb.parameter(value.getClass(), parameterName);
         
         switch (action) {
             case LESS_THAN:
-                return cb.lessThan(expression, value);
+                return cb.lessThan(expression, valueExpression);
             case LESS_THAN_OR_EQUAL:
-                return cb.lessThanOrEqualTo(expression, value);
+                return cb.lessThanOrEqualTo(expression, valueExpression);
             case LARGER_THAN:
-                return cb.greaterThan(expression, value);
+                return cb.greaterThan(expression, valueExpression);
             case LARGER_THAN_OR_EQUAL:
-                return cb.greaterThanOrEqualTo(expression, value);
+                return cb.greaterThanOrEqualTo(expression, valueExpression);
+            case BETWEEN:
+                return cb.between(expression, valueExpression, this.getToExpression(cb));
+            case BETWEEN_HALF_OPEN:
+                return cb.and(cb.greaterThanOrEqualTo(expression, valueExpression), cb.lessThan(expression, this.getToExpression(cb)));
         }
         throw QUERY_TYPE_NOT_ACCEPTED;
     }
     
+    private Expression<? extends Comparable> getToExpression(final CriteriaBuilder cb) {
+        return parameterName == null ? cb.literal(toValue) : cb.parameter(toValue.getClass(), parameterName + TO_PARAMETER_SUFFIX);
+    }
+    
+    @Override
+    public Object toParameterValue(final Object value) {
+        return value;
+    }
+    
+    @Override
+    public String toJpql(final String path) {
+        final String valueJpql = CriteriaHelper.toJpqlValue(value, parameterName);
+        switch (action) {
+            case LESS_THAN:
+                return path + " < " + valueJpql;
+            case LESS_THAN_OR_EQUAL:
+                return path + " <= " + valueJpql;
+            case LARGER_THAN:
+                return path + " > " + valueJpql;
+            case LARGER_THAN_OR_EQUAL:
+                return path + " >= " + valueJpql;
+            case BETWEEN:
+                return path + " between " + valueJpql + " and " + this.getToJpql();
+            case BETWEEN_HALF_OPEN:
+                return "(" + path + " >= " + valueJpql + " and " + path + " < " + this.getToJpql() + ")";
+        }
+        throw QUERY_TYPE_NOT_ACCEPTED;
+    }
+    
+    private String getToJpql() {
+        return CriteriaHelper.toJpqlValue(toValue, parameterName == null ? null : parameterName + TO_PARAMETER_SUFFIX);
+    }
+    
+    @Override
+    public String getFingerprint() {
+        return Fingerprint.of("ForNumber." + action).add(table.getFingerprint()).addValue(value).addValue(toValue).add(parameterName).toString();
+    }
+    
     public static final class Builder {
         private TableJoin table;
         private ForNumber action;
         private Comparable value;
+        private Comparable<?> toValue;
+        private String parameterName;
         
         private Builder() {
         }
@@ -68,6 +153,16 @@ public class WhereClauseForNumber implements WhereClause {
             return this;
         }
         
+        public Builder toValue(final Comparable<?> val) {
+            toValue = val;
+            return this;
+        }
+        
+        public Builder parameterName(final String val) {
+            parameterName = val;
+            return this;
+        }
+        
         public WhereClauseForNumber build() {
             return new WhereClauseForNumber(this);
         }
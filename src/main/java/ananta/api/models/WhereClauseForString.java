@@ -1,22 +1,35 @@
 package ananta.api.models;
 
+import ananta.api.helpers.CriteriaHelper;
 import ananta.api.statics.ForString;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Predicate;
+import java.util.Optional;
 
+/**
+ * LIKE clauses. Wildcards of the value are escaped, so "%" and "_" typed by users are matched as they are,
+ * and prefix patterns never start with a wildcard: START_WITH can use an index on the column and
+ * START_WITH_IGNORE_CASE an index on lower(column) or upper(column).
+ */
 public class WhereClauseForString implements WhereClause {
     private static final QueryException QUERY_TYPE_NOT_ACCEPTED = new QueryException("Action not accepted.");
+    // Not a backslash, which some databases, like MySQL, also read as an escape in string literals.
+    private static final char ESCAPE_CHARACTER = '!';
     private final TableJoin table;
     private final ForString action;
     private final String value;
+    private final String parameterName;
+    private final IgnoreCaseStrategy ignoreCaseStrategy;
     
     private WhereClauseForString(final Builder builder) {
         table = builder.table;
         action = builder.action;
         value = builder.value;
+        parameterName = builder.parameterName;
+        ignoreCaseStrategy = builder.ignoreCaseStrategy == null ? IgnoreCaseStrategy.LOWER : builder.ignoreCaseStrategy;
     }
     
     public static Builder builder() {
@@ -28,36 +41,111 @@ public class WhereClauseForString implements WhereClause {
         return table;
     }
     
+    @Override
+    public String getValue() {
+        return value;
+    }
+    
+    @Override
+    public Optional<String> getParameterName() {
+        return Optional.ofNullable(parameterName);
+    }
+    
+    @Override
+    public WhereClauseForString withParameterName(final String parameterName) {
+        return WhereClauseForString.builder().table(table).action(action).value(value).parameterName(parameterName).ignoreCaseStrategy(ignoreCaseStrategy).build();
+    }
+    
     @Override
     public Predicate getPredicate(final CriteriaBuilder cb, From<?, ?> join) {
         Expression<String> expression = join.get(table.getColumn());
+        Expression<String> pattern = parameterName == null ? cb.literal(this.toParameterValue(value)) : cb.parameter(String.class, parameterName);
         switch (action) {
             case LIKE:
-                return cb.like(expression, "%" + value + "%");
+            case START_WITH:
+            case END_WITH:
+                return cb.like(expression, pattern, ESCAPE_CHARACTER);
             case NOT_LIKE:
-                return cb.notLike(expression, "%" + value + "%");
-//            case LIKE_IGNORE_CASE:
-//                return cb.notLike(join.get(column), "%" + value + "%");
+            case NOT_START_WITH:
+            case NOT_END_WITH:
+                return cb.notLike(expression, pattern, ESCAPE_CHARACTER);
+            case LIKE_IGNORE_CASE:
+            case START_WITH_IGNORE_CASE:
+            case END_WITH_IGNORE_CASE:
+                return cb.like(ignoreCaseStrategy.apply(cb, expression), pattern, ESCAPE_CHARACTER);
+        }
+        throw QUERY_TYPE_NOT_ACCEPTED;
+    }
+    
+    /**
+     * @return the like pattern of the action, with the wildcards of the value escaped.
+     */
+    @Override
+    public String toParameterValue(final Object value) {
+        final String escapedValue = escape(String.valueOf(value));
+        switch (action) {
+            case LIKE:
+            case NOT_LIKE:
+                return "%" + escapedValue + "%";
             case START_WITH:
-                return cb.like(expression, value + "%");
-//            case START_WITH_IGNORE_CASE:
-//                return cb.like(join.get(column), value + "%");
             case NOT_START_WITH:
-                return cb.notLike(expression, value + "%");
+                return escapedValue + "%";
             case END_WITH:
-                return cb.like(expression, "%" + value);
-//            case END_WITH_IGNORE_CASE:
-//                return cb.like(join.get(column), "%" + value);
             case NOT_END_WITH:
-                return cb.notLike(expression, "%" + value);
+                return "%" + escapedValue;
+            case LIKE_IGNORE_CASE:
+                return "%" + ignoreCaseStrategy.apply(escapedValue) + "%";
+            case START_WITH_IGNORE_CASE:
+                return ignoreCaseStrategy.apply(escapedValue) + "%";
+            case END_WITH_IGNORE_CASE:
+                return "%" + ignoreCaseStrategy.apply(escapedValue);
         }
         throw QUERY_TYPE_NOT_ACCEPTED;
     }
     
+    private static String escape(final String value) {
+        final StringBuilder escapedValue = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); ++i) {
+            final char character = value.charAt(i);
+            if (character == ESCAPE_CHARACTER || character == '%' || character == '_') {
+                escapedValue.append(ESCAPE_CHARACTER);
+            }
+            escapedValue.append(character);
+        }
+        return escapedValue.toString();
+    }
+    
+    @Override
+    public String toJpql(final String path) {
+        final String pattern = CriteriaHelper.toJpqlValue(this.toParameterValue(value), parameterName) + " escape '" + ESCAPE_CHARACTER + "'";
+        switch (action) {
+            case LIKE:
+            case START_WITH:
+            case END_WITH:
+                return path + " like " + pattern;
+            case NOT_LIKE:
+            case NOT_START_WITH:
+            case NOT_END_WITH:
+                return path + " not like " + pattern;
+            case LIKE_IGNORE_CASE:
+            case START_WITH_IGNORE_CASE:
+            case END_WITH_IGNORE_CASE:
+                return ignoreCaseStrategy.toJpql(path) + " like " + pattern;
+        }
+        throw QUERY_TYPE_NOT_ACCEPTED;
+    }
+    
+    @Override
+    public String getFingerprint() {
+        return Fingerprint.of("ForString." + action).add(table.getFingerprint()).addValue(value).add(parameterName).add(ignoreCaseStrategy.name()).toString();
+    }
+    
     public static final class Builder {
         private TableJoin table;
         private ForString action;
         private String value;
+        private String parameterName;
+        private IgnoreCaseStrategy ignoreCaseStrategy;
         
         private Builder() {
         }
@@ -77,6 +165,16 @@ public class WhereClauseForString implements WhereClause {
             return this;
         }
         
+        public Builder parameterName(final String val) {
+            parameterName = val;
+            return this;
+        }
+        
+        public Builder ignoreCaseStrategy(final IgnoreCaseStrategy val) {
+            ignoreCaseStrategy = val;
+            return this;
+        }
+        
         public WhereClauseForString build() {
             return new WhereClauseForString(this);
         }
@@ -5,4 +5,19 @@ public enum ForNumber {
     LESS_THAN_OR_EQUAL,
     LARGER_THAN,
     LARGER_THAN_OR_EQUAL,
+    /**
+     * From and to are part of the range.
+     */
+    BETWEEN,
+    /**
+     * From is part of the range, to is not. It is the usual shape of date ranges, like [day, next day).
+     */
+    BETWEEN_HALF_OPEN;
+    
+    /**
+     * @return true if the action takes two values, from and to.
+     */
+    public boolean isRange() {
+        return this == BETWEEN || this == BETWEEN_HALF_OPEN;
+    }
 }
@@ -0,0 +1,53 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.QueryException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    @Test
+    void givesEveryLookupItsRow() {
+        final BatchLoader<Long, OrderDto> loader = SearchCriteria.batchLoader(OrderDto.class, CustomerOrder.class, "id", Long.class).withChunkSize(2);
+        final CompletableFuture<Optional<OrderDto>> first = loader.load(1L);
+        final CompletableFuture<Optional<OrderDto>> fifth = loader.load(5L);
+        final CompletableFuture<Optional<OrderDto>> missing = loader.load(100L);
+        
+        assertEquals(3, loader.getPendingCount());
+        loader.dispatch();
+        
+        assertEquals(Integer.valueOf(10), first.join().orElseThrow().getAmount());
+        assertEquals(Integer.valueOf(50), fifth.join().orElseThrow().getAmount());
+        assertTrue(missing.join().isEmpty());
+        assertEquals(0, loader.getPendingCount());
+    }
+    
+    @Test
+    void loadsByAnyColumnOfTheKeyType() {
+        final BatchLoader<Integer, OrderDto> loader = SearchCriteria.batchLoader(OrderDto.class, CustomerOrder.class, "amount", Integer.class);
+        final CompletableFuture<Optional<OrderDto>> order = loader.load(70);
+        loader.dispatch();
+        
+        assertEquals(7L, order.join().orElseThrow().getId());
+    }
+    
+    @Test
+    void refusesKeyTypeOtherThanTheColumnType() {
+        assertThrows(QueryException.class, () -> SearchCriteria.batchLoader(OrderDto.class, CustomerOrder.class, "id", Integer.class));
+        assertThrows(QueryException.class, () -> SearchCriteria.batchLoader(OrderDto.class, CustomerOrder.class, "amount", String.class));
+    }
+}
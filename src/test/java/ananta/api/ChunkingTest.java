@@ -0,0 +1,157 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.helpers.ExecutorHelper;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForNumber;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkingTest {
+    private static final List<Long> ORDER_IDS = LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+    
+    private static Statistics statistics;
+    
+    @BeforeAll
+    static void startDatabase() {
+        statistics = TestDatabase.start().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @AfterEach
+    void resetConfig() {
+        SearchCriteria.configInChunkSize(1000);
+        SearchCriteria.configChunkParallelism(4);
+        SearchCriteria.configExecutor(ExecutorHelper.newBlockingTaskExecutor("search-criteria-"));
+    }
+    
+    private static SearchCriteria<OrderDto, CustomerOrder> orders() {
+        return SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class)
+            .from(CustomerOrder.class)
+            .where("id", ForCollection.IN, ORDER_IDS)
+            .and("amount", ForNumber.LARGER_THAN, 30);
+    }
+    
+    private static List<Long> idsOf(final List<OrderDto> items) {
+        return items.stream().map(OrderDto::getId).collect(Collectors.toList());
+    }
+    
+    /**
+     * @return result of the operation with chunks of 3 values, after checking it is the same without chunks.
+     */
+    private static <R> R chunkedAndWhole(final Function<SearchCriteria<OrderDto, CustomerOrder>, R> operation) {
+        final R whole = operation.apply(orders());
+        SearchCriteria.configInChunkSize(3);
+        statistics.clear();
+        final R chunked = operation.apply(orders());
+        SearchCriteria.configInChunkSize(1000);
+        
+        assertEquals(whole, chunked);
+        return chunked;
+    }
+    
+    @Test
+    void mergesListsOfEveryChunk() {
+        final List<Long> ids = chunkedAndWhole(criteria -> idsOf(criteria.toList()).stream().sorted().collect(Collectors.toList()));
+        
+        assertEquals(LongStream.rangeClosed(4, 12).boxed().collect(Collectors.toList()), ids);
+        assertEquals(7, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void cutsPageFromTheRowsOfEveryChunk() {
+        final List<Long> ids = chunkedAndWhole(criteria -> idsOf(criteria.withPage(2, 3, "amount", false).toPage().getContent()));
+        
+        assertEquals(List.of(9L, 8L, 7L), ids);
+    }
+    
+    @Test
+    void findsFirstInTheFirstChunkWithRows() {
+        final boolean isFound = chunkedAndWhole(criteria -> criteria.findFirst().isPresent());
+        
+        assertTrue(isFound);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void sumsCountsOfEveryChunk() {
+        final long count = chunkedAndWhole(SearchCriteria::count);
+        final boolean isAny = chunkedAndWhole(SearchCriteria::existAny);
+        final boolean isAnyAbove500 = chunkedAndWhole(criteria -> criteria.and("amount", ForNumber.LARGER_THAN, 500).existAny());
+        
+        assertEquals(9, count);
+        assertTrue(isAny);
+        assertFalse(isAnyAbove500);
+    }
+    
+    @Test
+    void groupsRowsOfEveryChunk() {
+        final Map<Long, List<OrderDto>> ordersById = chunkedAndWhole(criteria -> criteria.toListGroupedBy("id", Long.class));
+        
+        assertEquals(9, ordersById.size());
+        ordersById.forEach((id, items) -> assertEquals(List.of(id), idsOf(items)));
+    }
+    
+    @Test
+    void writesInListsJoinedByOrWhenRowsCouldBeInSeveralChunks() {
+        SearchCriteria.configInChunkSize(2);
+        statistics.clear();
+        
+        final long count = SearchCriteria.selectFrom(CustomerOrder.class).where("status", ForCollection.IN, List.of("DONE", "NEW", "PAID")).count();
+        
+        assertEquals(TestDatabase.ORDER_COUNT, count);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void runsAtMostTheConfiguredNumberOfChunksAtTheSameTime() {
+        final ExecutorService pool = Executors.newCachedThreadPool();
+        final AtomicInteger submittedCount = new AtomicInteger();
+        try {
+            SearchCriteria.configExecutor(task -> {
+                submittedCount.incrementAndGet();
+                pool.execute(task);
+            });
+            SearchCriteria.configChunkParallelism(2);
+            SearchCriteria.configInChunkSize(3);
+            
+            assertEquals(9, orders().toList().size());
+            // 7 chunks run by the caller and one executor thread.
+            assertEquals(1, submittedCount.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    void runsChunksFromAnAsyncOperationOnABusyExecutor() throws Exception {
+        final ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            SearchCriteria.configExecutor(singleThread);
+            SearchCriteria.configInChunkSize(3);
+            final CompletableFuture<List<OrderDto>> items = orders().toListAsync();
+            
+            assertEquals(9, items.get(10, TimeUnit.SECONDS).size());
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+}
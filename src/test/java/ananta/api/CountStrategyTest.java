@@ -0,0 +1,111 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.CountStrategy;
+import ananta.api.models.SearchPage;
+import ananta.api.statics.ForNumber;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountStrategyTest {
+    private static Statistics statistics;
+    
+    @BeforeAll
+    static void startDatabase() {
+        statistics = TestDatabase.start().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    /**
+     * Pages of 5 orders, starting at 1, whose amount is above 30, there are 9 of them.
+     */
+    private static SearchPage<OrderDto> pageOf(final int pageNumber, final CountStrategy countStrategy) {
+        return SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class)
+            .from(CustomerOrder.class)
+            .where("amount", ForNumber.LARGER_THAN, 30)
+            .withPage(pageNumber, 5, "id", true)
+            .withCountStrategy(countStrategy)
+            .toPage();
+    }
+    
+    @Test
+    void exactCountsWithTheFilters() {
+        final SearchPage<OrderDto> page = pageOf(1, CountStrategy.exact());
+        
+        assertEquals(5, page.getNumberOfElements());
+        assertEquals(9, page.getTotalElements());
+        assertTrue(page.isTotalExact());
+    }
+    
+    @Test
+    void lastPageGivesTheTotalWithoutCounting() {
+        statistics.clear();
+        final SearchPage<OrderDto> page = pageOf(2, CountStrategy.exact());
+        
+        assertEquals(4, page.getNumberOfElements());
+        assertEquals(9, page.getTotalElements());
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+    
+    @Test
+    void cappedCountStopsAtTheLimit() {
+        final SearchPage<OrderDto> cappedPage = pageOf(1, CountStrategy.capped(6));
+        assertEquals(6, cappedPage.getTotalElements());
+        assertFalse(cappedPage.isTotalExact());
+        
+        final SearchPage<OrderDto> page = pageOf(1, CountStrategy.capped(20));
+        assertEquals(9, page.getTotalElements());
+        assertTrue(page.isTotalExact());
+    }
+    
+    @Test
+    void skippedCountOnlyTellsThereIsMore() {
+        final SearchPage<OrderDto> page = pageOf(1, CountStrategy.skipped());
+        
+        assertEquals(6, page.getTotalElements());
+        assertFalse(page.isTotalExact());
+    }
+    
+    @Test
+    void cachedExactTotalIsReusedByOtherPages() {
+        final CountStrategy countStrategy = CountStrategy.cached(CountStrategy.exact(), Duration.ofMinutes(1));
+        pageOf(1, countStrategy);
+        statistics.clear();
+        
+        final SearchPage<OrderDto> page = SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class)
+            .from(CustomerOrder.class)
+            .where("amount", ForNumber.LARGER_THAN, 30)
+            .withPage(2, 4, "id", true)
+            .withCountStrategy(countStrategy)
+            .toPage();
+        
+        assertEquals(9, page.getTotalElements());
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+    
+    @Test
+    void cachedLowerBoundIsNotReusedByOtherPages() {
+        final CountStrategy countStrategy = CountStrategy.cached(CountStrategy.skipped(), Duration.ofMinutes(1));
+        final SearchPage<OrderDto> firstPage = SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class)
+            .from(CustomerOrder.class)
+            .withPage(1, 5, "id", true)
+            .withCountStrategy(countStrategy)
+            .toPage();
+        final SearchPage<OrderDto> secondPage = SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class)
+            .from(CustomerOrder.class)
+            .withPage(2, 5, "id", true)
+            .withCountStrategy(countStrategy)
+            .toPage();
+        
+        assertEquals(6, firstPage.getTotalElements());
+        assertEquals(11, secondPage.getTotalElements());
+    }
+}
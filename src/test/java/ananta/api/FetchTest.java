@@ -0,0 +1,60 @@
+package ananta.api;
+
+import ananta.api.entities.Customer;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.QueryException;
+import ananta.api.statics.ForAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FetchTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    @Test
+    void joinsTablesAfterFetchFromTheLastJoinedTable() {
+        final List<CustomerOrder> orders = SearchCriteria.selectFrom(CustomerOrder.class)
+            .fetch("lines")
+            .join(Customer.class)
+            .where("customers.name", ForAll.EQUAL, "alice")
+            .toList();
+        
+        assertEquals(List.of(1L, 4L, 7L, 10L), orders.stream().map(CustomerOrder::getId).sorted().collect(Collectors.toList()));
+        orders.forEach(order -> assertEquals(order.getId() % 3, order.getLines().size()));
+    }
+    
+    @Test
+    void refusesPagesOfFetchedCollection() {
+        final SearchCriteria<CustomerOrder, CustomerOrder> criteria = SearchCriteria.selectFrom(CustomerOrder.class).fetch("lines").withPage(1, 2, "id", true);
+        
+        assertThrows(QueryException.class, criteria::toPage);
+    }
+    
+    @Test
+    void pagesFetchedSingleRelationship() {
+        final List<CustomerOrder> orders = SearchCriteria.selectFrom(CustomerOrder.class).fetch("customer").withPage(2, 5, "id", true).toPage().getContent();
+        
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), orders.stream().map(CustomerOrder::getId).collect(Collectors.toList()));
+        assertEquals("carol", orders.get(0).getCustomer().getName());
+    }
+    
+    @Test
+    void findsFirstWithEveryRowOfFetchedCollection() {
+        final CustomerOrder order = SearchCriteria.selectFrom(CustomerOrder.class)
+            .fetch("lines")
+            .where("id", ForAll.EQUAL, 5L)
+            .findFirst()
+            .orElseThrow();
+        
+        assertEquals(2, order.getLines().size());
+    }
+}
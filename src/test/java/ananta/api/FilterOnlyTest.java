@@ -0,0 +1,90 @@
+package ananta.api;
+
+import ananta.api.dtos.CustomerDto;
+import ananta.api.entities.Customer;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.QueryException;
+import ananta.api.statics.ForAll;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForNumber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FilterOnlyTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    @AfterEach
+    void resetChunkSize() {
+        SearchCriteria.configInChunkSize(1000);
+    }
+    
+    private static SearchCriteria<CustomerDto, Customer> customersByOrders() {
+        return SearchCriteria.<CustomerDto, Customer>select(CustomerDto.class)
+            .from(Customer.class)
+            .join(CustomerOrder.class)
+            .filterOnly("orders");
+    }
+    
+    private static List<String> namesOf(final List<CustomerDto> customers) {
+        return customers.stream().map(CustomerDto::getName).sorted().collect(Collectors.toList());
+    }
+    
+    @Test
+    void returnsEachMatchingRowOnce() {
+        final SearchCriteria<CustomerDto, Customer> criteria = customersByOrders().where("orders.status", ForAll.EQUAL, "PAID");
+        
+        assertEquals(List.of("alice", "bob"), namesOf(criteria.toList()));
+        assertEquals(2, customersByOrders().where("orders.status", ForAll.EQUAL, "PAID").count());
+    }
+    
+    @Test
+    void matchesEveryClauseAgainstTheSameRelatedRow() {
+        final List<CustomerDto> customers = customersByOrders()
+            .where("orders.status", ForAll.EQUAL, "PAID")
+            .and("orders.amount", ForNumber.LARGER_THAN, 90)
+            .toList();
+        
+        assertEquals(List.of("alice"), namesOf(customers));
+    }
+    
+    @Test
+    void pagesRowsOfTheRoot() {
+        final List<CustomerDto> customers = customersByOrders()
+            .where("orders.status", ForAll.EQUAL, "PAID")
+            .withPage(2, 1, "name", true)
+            .toPage()
+            .getContent();
+        
+        assertEquals(List.of("bob"), namesOf(customers));
+    }
+    
+    @Test
+    void refusesToSortByFilterOnlyTable() {
+        final SearchCriteria<CustomerDto, Customer> criteria = customersByOrders().withPage(1, 2, "orders.amount", true);
+        
+        assertThrows(QueryException.class, criteria::toPage);
+    }
+    
+    @Test
+    void readsLargeInOnFilterOnlyTableInOneQuery() {
+        final List<Long> orderIds = LongStream.rangeClosed(1, 15).boxed().collect(Collectors.toList());
+        final long count = customersByOrders().where("orders.id", ForCollection.IN, orderIds).count();
+        SearchCriteria.configInChunkSize(4);
+        
+        assertEquals(3, count);
+        assertEquals(3, customersByOrders().where("orders.id", ForCollection.IN, orderIds).count());
+        assertEquals(List.of("alice", "bob", "carol"), namesOf(customersByOrders().where("orders.id", ForCollection.IN, orderIds).toList()));
+    }
+}
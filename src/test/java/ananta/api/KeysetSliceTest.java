@@ -0,0 +1,89 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.KeysetCursor;
+import ananta.api.models.KeysetSlice;
+import ananta.api.models.QueryException;
+import ananta.api.statics.ForNumber;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetSliceTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    private static SearchCriteria<OrderDto, CustomerOrder> orders() {
+        return SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class).from(CustomerOrder.class);
+    }
+    
+    /**
+     * @return ids of every slice, following the cursors until the last slice.
+     */
+    private static List<List<Long>> slicesOf(final String orderBy, final boolean isAscending) {
+        final List<List<Long>> slices = new ArrayList<>();
+        String cursor = null;
+        do {
+            final KeysetSlice<OrderDto> slice = orders()
+                .where("amount", ForNumber.LARGER_THAN, 10)
+                .withPage(0, 5, orderBy, isAscending)
+                .toSlice(cursor);
+            slices.add(slice.getContent().stream().map(OrderDto::getId).collect(Collectors.toList()));
+            cursor = slice.getNextCursor().orElse(null);
+        } while (cursor != null);
+        return slices;
+    }
+    
+    @Test
+    void followsCursorsUntilTheLastRow() {
+        assertEquals(List.of(List.of(12L, 11L, 10L, 9L, 8L), List.of(7L, 6L, 5L, 4L, 3L), List.of(2L)), slicesOf("amount", false));
+    }
+    
+    @Test
+    void breaksTiesOfTheSortByTheId() {
+        assertEquals(List.of(List.of(3L, 6L, 9L, 12L, 5L), List.of(7L, 11L, 2L, 4L, 8L), List.of(10L)), slicesOf("status", true));
+    }
+    
+    @Test
+    void followsCursorsOfDates() {
+        assertEquals(List.of(List.of(2L, 3L, 4L, 5L, 6L), List.of(7L, 8L, 9L, 10L, 11L), List.of(12L)), slicesOf("createdOn", true));
+    }
+    
+    @Test
+    void followsCursorsOfDecimals() {
+        assertEquals(List.of(List.of(12L, 11L, 10L, 9L, 8L), List.of(7L, 6L, 5L, 4L, 3L), List.of(2L)), slicesOf("price", false));
+    }
+    
+    @Test
+    void lastSliceHasNoCursor() {
+        final KeysetSlice<OrderDto> slice = orders().where("amount", ForNumber.LARGER_THAN, 100).withPage(0, 5, "id", true).toSlice(null);
+        
+        assertEquals(2, slice.getNumberOfElements());
+        assertFalse(slice.hasNext());
+        assertTrue(slice.getNextCursor().isEmpty());
+    }
+    
+    @Test
+    void refusesMalformedCursor() {
+        assertThrows(QueryException.class, () -> orders().withPage(0, 5, "amount", true).toSlice("not a cursor"));
+    }
+    
+    @Test
+    void refusesCursorWithAnotherNumberOfKeys() {
+        final String cursor = KeysetCursor.of(new Object[]{1L}).encode();
+        
+        assertThrows(QueryException.class, () -> orders().withPage(0, 5, "amount", true).toSlice(cursor));
+    }
+}
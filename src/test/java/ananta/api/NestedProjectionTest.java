@@ -0,0 +1,72 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderWithCustomer;
+import ananta.api.dtos.OrderWithLines;
+import ananta.api.entities.Customer;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.QueryException;
+import ananta.api.statics.ForAll;
+import ananta.api.statics.ForNumber;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NestedProjectionTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    private static SearchCriteria<OrderWithLines, CustomerOrder> ordersWithLines() {
+        return SearchCriteria.<OrderWithLines, CustomerOrder>select(OrderWithLines.class).from(CustomerOrder.class).join("lines");
+    }
+    
+    @Test
+    void assemblesNestedCollectionOfEveryItem() {
+        final List<OrderWithLines> orders = ordersWithLines().where("id", ForNumber.LESS_THAN_OR_EQUAL, 6L).toList();
+        orders.sort(Comparator.comparing(OrderWithLines::getId));
+        
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), orders.stream().map(OrderWithLines::getId).collect(Collectors.toList()));
+        for (final OrderWithLines order : orders) {
+            assertEquals(order.getId() * 10, order.getAmount().longValue());
+            assertEquals(order.getId() % 3, order.getLines().size());
+        }
+        final OrderWithLines order = orders.get(1);
+        assertEquals(List.of("p0", "p1"), order.getLines().stream().map(OrderWithLines.LineDto::getProduct).sorted().collect(Collectors.toList()));
+    }
+    
+    @Test
+    void findsFirstWithItsWholeCollection() {
+        final OrderWithLines order = ordersWithLines().where("id", ForAll.EQUAL, 5L).findFirst().orElseThrow();
+        
+        assertEquals(5L, order.getId());
+        assertEquals(2, order.getLines().size());
+    }
+    
+    @Test
+    void refusesPagesOfNestedCollection() {
+        assertThrows(QueryException.class, () -> ordersWithLines().withPage(1, 2, "id", true).toPage());
+    }
+    
+    @Test
+    void fillsNestedObjectAndJoinedColumn() {
+        final List<OrderWithCustomer> orders = SearchCriteria.<OrderWithCustomer, CustomerOrder>select(OrderWithCustomer.class)
+            .from(CustomerOrder.class)
+            .join(Customer.class)
+            .toList();
+        
+        assertEquals(TestDatabase.ORDER_COUNT, orders.size());
+        for (final OrderWithCustomer order : orders) {
+            final long customerId = (order.getId() - 1) % 3 + 1;
+            assertEquals(customerId, order.getCustomer().getId());
+            assertEquals(order.getCustomer().getName(), order.getCustomerName());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ananta.api;
+
+import ananta.api.entities.CustomerOrder;
+import ananta.api.statics.ForCollection;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NotInTest {
+    private static Statistics statistics;
+    
+    @BeforeAll
+    static void startDatabase() {
+        statistics = TestDatabase.start().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @AfterEach
+    void resetChunkSize() {
+        SearchCriteria.configInChunkSize(1000);
+    }
+    
+    private static List<Long> idsNotIn(final List<Long> ids) {
+        return SearchCriteria.selectFrom(CustomerOrder.class)
+            .where("id", ForCollection.NOT_IN, ids)
+            .toList()
+            .stream()
+            .map(CustomerOrder::getId)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+    
+    @Test
+    void keepsRowsOutsideOfTheValues() {
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L), idsNotIn(List.of(3L, 1L, 2L)));
+    }
+    
+    @Test
+    void ignoresDuplicatedValues() {
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L), idsNotIn(List.of(2L, 1L, 2L, 1L)));
+    }
+    
+    @Test
+    void writesLargeNotInAsListsJoinedByAnd() {
+        SearchCriteria.configInChunkSize(2);
+        statistics.clear();
+        
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L, 11L, 12L), idsNotIn(List.of(1L, 2L, 3L, 4L, 5L)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void bindsNewValuesToPreparedNotIn() {
+        final PreparedSearch<CustomerOrder> search = SearchCriteria.selectFrom(CustomerOrder.class).where("status", ForCollection.NOT_IN, List.of("NEW")).prepare();
+        
+        assertEquals(8, search.count());
+        assertEquals(4, search.bind("status", List.of("NEW", "PAID", "NEW")).count());
+    }
+}
@@ -0,0 +1,77 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.QueryException;
+import ananta.api.statics.ForAll;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForNumber;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreparedSearchTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    private static SearchCriteria<OrderDto, CustomerOrder> orders() {
+        return SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class).from(CustomerOrder.class);
+    }
+    
+    @Test
+    void runsWithTheBoundValues() {
+        final PreparedSearch<OrderDto> search = orders().where("amount", ForNumber.LARGER_THAN, 50).and("status", ForAll.EQUAL, "PAID").prepare();
+        
+        assertEquals(Set.of("amount", "status"), search.getParameterNames());
+        assertEquals(2, search.count());
+        assertEquals(4, search.bind("amount", 10).count());
+        assertEquals(4, search.bind("amount", 10).bind("status", "DONE").toList().size());
+        assertEquals(2, search.count());
+    }
+    
+    @Test
+    void isNotChangedByTheCriteriaAfterwards() {
+        final SearchCriteria<OrderDto, CustomerOrder> criteria = orders().where("amount", ForNumber.LARGER_THAN, 100);
+        final PreparedSearch<OrderDto> search = criteria.prepare();
+        
+        criteria.and("status", ForAll.EQUAL, "DONE");
+        assertEquals(1, criteria.toList().size());
+        
+        assertEquals(2, search.toList().size());
+        assertEquals(2, search.count());
+    }
+    
+    @Test
+    void refusesFetchJoins() {
+        final SearchCriteria<CustomerOrder, CustomerOrder> criteria = SearchCriteria.selectFrom(CustomerOrder.class).fetch("lines");
+        
+        assertThrows(QueryException.class, criteria::prepare);
+    }
+    
+    @Test
+    void refusesUnknownParameter() {
+        final PreparedSearch<OrderDto> search = orders().where("amount", ForNumber.LARGER_THAN, 100).prepare();
+        
+        assertThrows(QueryException.class, () -> search.bind("price", 1));
+    }
+    
+    @Test
+    void refusesValueOfAnotherType() {
+        final PreparedSearch<OrderDto> search = orders().where("amount", ForNumber.LARGER_THAN, 100).and("id", ForCollection.IN, List.of(1L, 2L)).prepare();
+        
+        final QueryException exception = assertThrows(QueryException.class, () -> search.bind("amount", "100"));
+        assertTrue(exception.getMessage().contains("amount"));
+        assertThrows(QueryException.class, () -> search.bind("id", 1L));
+        assertThrows(QueryException.class, () -> search.bind("id", List.of(1, 2)));
+        assertEquals(3, search.bind("amount", 10).bind("id", List.of(3L, 4L, 5L)).count());
+    }
+}
@@ -0,0 +1,63 @@
+package ananta.api;
+
+import ananta.api.entities.CustomerOrder;
+import ananta.api.statics.ForNumber;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RangeTest {
+    private static Statistics statistics;
+    
+    @BeforeAll
+    static void startDatabase() {
+        statistics = TestDatabase.start().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    private static <V extends Comparable<? super V>> List<Long> idsBetween(final String key, final ForNumber action, final V from, final V to) {
+        return SearchCriteria.selectFrom(CustomerOrder.class)
+            .where(key, action, from, to)
+            .toList()
+            .stream()
+            .map(CustomerOrder::getId)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+    
+    @Test
+    void includesBothEndsOfBetween() {
+        assertEquals(List.of(3L, 4L, 5L, 6L), idsBetween("amount", ForNumber.BETWEEN, 30, 60));
+        assertEquals(List.of(3L), idsBetween("amount", ForNumber.BETWEEN, 30, 30));
+    }
+    
+    @Test
+    void excludesTheEndOfHalfOpenRange() {
+        assertEquals(List.of(3L, 4L, 5L), idsBetween("amount", ForNumber.BETWEEN_HALF_OPEN, 30, 60));
+        assertEquals(List.of(3L, 4L, 5L), idsBetween("createdOn", ForNumber.BETWEEN_HALF_OPEN, LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 6)));
+    }
+    
+    @Test
+    void runsNoQueryForEmptyRange() {
+        statistics.clear();
+        
+        assertEquals(List.of(), idsBetween("amount", ForNumber.BETWEEN, 60, 30));
+        assertEquals(List.of(), idsBetween("amount", ForNumber.BETWEEN_HALF_OPEN, 30, 30));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void bindsBothEndsOfPreparedRange() {
+        final PreparedSearch<CustomerOrder> search = SearchCriteria.selectFrom(CustomerOrder.class).where("amount", ForNumber.BETWEEN, 30, 60).prepare();
+        
+        assertEquals(4, search.count());
+        assertEquals(2, search.bind("amount_to", 40).count());
+        assertEquals(6, search.bind("amount", 10).bind("amount_to", 60).count());
+    }
+}
@@ -0,0 +1,46 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.statics.ForAll;
+import ananta.api.statics.ForNumber;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RowMappingTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    private static SearchCriteria<OrderDto, CustomerOrder> orders() {
+        return SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class).from(CustomerOrder.class);
+    }
+    
+    @Test
+    void mapsColumnsToFieldsOfTheSameName() {
+        final List<OrderDto> items = orders().where("id", ForNumber.LESS_THAN_OR_EQUAL, 3L).toList();
+        items.sort(Comparator.comparing(OrderDto::getId));
+        
+        assertEquals(3, items.size());
+        assertEquals(20, items.get(1).getAmount());
+        assertEquals("PAID", items.get(1).getStatus());
+        assertEquals(new BigDecimal("2.00"), items.get(1).getPrice());
+        assertEquals("DONE", items.get(2).getStatus());
+    }
+    
+    @Test
+    void mapsColumnsRenamedWithColumnAnnotation() {
+        final List<OrderDto> items = orders().where("status_code", ForAll.EQUAL, "NEW").toList();
+        
+        assertEquals(4, items.size());
+        items.forEach(item -> assertEquals("NEW", item.getStatus()));
+    }
+}
@@ -0,0 +1,137 @@
+package ananta.api;
+
+import ananta.api.dtos.CustomerDto;
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.Customer;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.models.IgnoreCaseStrategy;
+import ananta.api.models.QueryException;
+import ananta.api.models.SearchCache;
+import ananta.api.models.SearchCacheListener;
+import ananta.api.statics.ForAll;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForString;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchCacheTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+    
+    private static Statistics statistics;
+    
+    @BeforeAll
+    static void startDatabase() {
+        statistics = TestDatabase.start().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @BeforeEach
+    void clearCache() {
+        SearchCache.clear();
+        statistics.clear();
+    }
+    
+    private static SearchCriteria<CustomerDto, Customer> customers() {
+        return SearchCriteria.<CustomerDto, Customer>select(CustomerDto.class).from(Customer.class).cached(TTL);
+    }
+    
+    private static List<Long> idsOf(final List<CustomerDto> items) {
+        return items.stream().map(CustomerDto::getId).sorted().collect(Collectors.toList());
+    }
+    
+    @Test
+    void readsCachedImmutableDtosOnce() {
+        final List<CustomerDto> first = customers().toList();
+        final List<CustomerDto> second = customers().toList();
+        
+        assertEquals(TestDatabase.CUSTOMER_COUNT, second.size());
+        assertEquals(idsOf(first), idsOf(second));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void doesNotShareResultsOfOtherInLists() {
+        assertEquals(List.of(1L, 2L), idsOf(customers().where("id", ForCollection.IN, List.of(1L, 2L)).toList()));
+        assertEquals(List.of(1L, 3L), idsOf(customers().where("id", ForCollection.IN, List.of(1L, 3L)).toList()));
+    }
+    
+    @Test
+    void doesNotShareResultsOfValuesLookingLikeOtherClauses() {
+        assertEquals(List.of(1L), idsOf(customers().where("name", ForString.LIKE, "a").and("id", ForAll.EQUAL, 1L).toList()));
+        assertEquals(List.of(), idsOf(customers().where("name", ForString.LIKE, "a) and ForAll.EQUAL(id, 1").toList()));
+    }
+    
+    @Test
+    void doesNotShareResultsOfOtherIgnoreCaseStrategies() {
+        final String lowerFingerprint = customers().where("name", ForString.LIKE_IGNORE_CASE, "a").getFingerprint();
+        SearchCriteria.configIgnoreCase(IgnoreCaseStrategy.UPPER);
+        try {
+            assertNotEquals(lowerFingerprint, customers().where("name", ForString.LIKE_IGNORE_CASE, "a").getFingerprint());
+        } finally {
+            SearchCriteria.configIgnoreCase(IgnoreCaseStrategy.LOWER);
+        }
+    }
+    
+    @Test
+    void evictsResultsWhenTheirTableChanges() {
+        assertEquals(TestDatabase.CUSTOMER_COUNT, customers().toList().size());
+        assertEquals(TestDatabase.CUSTOMER_COUNT, customers().count());
+        
+        TestDatabase.inTransaction(entityManager -> entityManager.persist(new Customer(100L, "erin")));
+        try {
+            assertEquals(TestDatabase.CUSTOMER_COUNT + 1, customers().toList().size());
+            assertEquals(TestDatabase.CUSTOMER_COUNT + 1, customers().count());
+        } finally {
+            TestDatabase.inTransaction(entityManager -> entityManager.remove(entityManager.find(Customer.class, 100L)));
+        }
+        assertEquals(TestDatabase.CUSTOMER_COUNT, customers().toList().size());
+    }
+    
+    @Test
+    void evictsResultsCachedBeforeTheCommitOfAChange() {
+        final List<Runnable> afterCompletion = new ArrayList<>();
+        SearchCacheListener.configAfterCompletion(afterCompletion::add);
+        try {
+            TestDatabase.inTransaction(entityManager -> {
+                entityManager.persist(new Customer(100L, "erin"));
+                entityManager.flush();
+                // Searches on another entity manager don't see the change before the commit.
+                assertEquals(TestDatabase.CUSTOMER_COUNT, customers().toList().size());
+            });
+            afterCompletion.forEach(Runnable::run);
+            
+            assertEquals(TestDatabase.CUSTOMER_COUNT + 1, customers().toList().size());
+        } finally {
+            SearchCacheListener.configAfterCompletion(eviction -> {});
+            TestDatabase.inTransaction(entityManager -> entityManager.remove(entityManager.find(Customer.class, 100L)));
+        }
+    }
+    
+    @Test
+    void refusesToCacheMutableItems() {
+        final SearchCriteria<OrderDto, CustomerOrder> orders = SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class).from(CustomerOrder.class).cached(TTL);
+        
+        assertThrows(QueryException.class, orders::toList);
+        assertEquals(TestDatabase.ORDER_COUNT, orders.count());
+        assertThrows(QueryException.class, () -> SearchCriteria.selectFrom(Customer.class).cached(TTL).toList());
+        assertThrows(QueryException.class, () -> SearchCriteria.selectFrom(Customer.class).withPage(1, 2, "id", true).cached(TTL).toPage());
+    }
+    
+    @Test
+    void cachesCountOfEntities() {
+        assertEquals(4, SearchCriteria.selectFrom(CustomerOrder.class).where("status", ForAll.EQUAL, "DONE").cached(TTL).count());
+        assertEquals(4, SearchCriteria.selectFrom(CustomerOrder.class).where("status", ForAll.EQUAL, "DONE").cached(TTL).count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,67 @@
+package ananta.api;
+
+import ananta.api.dtos.OrderDto;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForNumber;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamTest {
+    private static Statistics statistics;
+    
+    @BeforeAll
+    static void startDatabase() {
+        statistics = TestDatabase.start().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @AfterEach
+    void resetChunkSize() {
+        SearchCriteria.configInChunkSize(1000);
+    }
+    
+    private static SearchCriteria<OrderDto, CustomerOrder> orders() {
+        return SearchCriteria.<OrderDto, CustomerOrder>select(OrderDto.class).from(CustomerOrder.class);
+    }
+    
+    private static List<Long> idsOf(final Stream<OrderDto> items) {
+        try (items) {
+            return items.map(OrderDto::getId).sorted().collect(Collectors.toList());
+        }
+    }
+    
+    @Test
+    void streamsEveryMatchingRow() {
+        assertEquals(List.of(10L, 11L, 12L), idsOf(orders().where("amount", ForNumber.LARGER_THAN, 90).toStream()));
+    }
+    
+    @Test
+    void forEachConsumesTheStream() {
+        final List<Long> ids = new ArrayList<>();
+        orders().where("id", ForNumber.LESS_THAN, 3L).forEach(item -> ids.add(item.getId()));
+        ids.sort(null);
+        
+        assertEquals(List.of(1L, 2L), ids);
+    }
+    
+    @Test
+    void streamsLargeInClauseChunkByChunk() {
+        SearchCriteria.configInChunkSize(2);
+        statistics.clear();
+        
+        final List<Long> ids = idsOf(orders().where("id", ForCollection.IN, List.of(1L, 3L, 5L, 7L, 9L)).and("amount", ForNumber.LARGER_THAN, 10).toStream());
+        
+        assertEquals(List.of(3L, 5L, 7L, 9L), ids);
+        assertEquals(3, statistics.getQueryExecutionCount());
+    }
+}
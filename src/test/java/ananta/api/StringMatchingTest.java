@@ -0,0 +1,66 @@
+package ananta.api;
+
+import ananta.api.entities.Customer;
+import ananta.api.models.IgnoreCaseStrategy;
+import ananta.api.statics.ForString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StringMatchingTest {
+    
+    @BeforeAll
+    static void startDatabase() {
+        TestDatabase.start();
+    }
+    
+    @AfterEach
+    void resetIgnoreCase() {
+        SearchCriteria.configIgnoreCase(IgnoreCaseStrategy.LOWER);
+    }
+    
+    private static List<String> namesOf(final ForString action, final String value) {
+        return SearchCriteria.selectFrom(Customer.class)
+            .where("name", action, value)
+            .toList()
+            .stream()
+            .map(Customer::getName)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+    
+    @Test
+    void matchesWildcardsAsTheyAreTyped() {
+        assertEquals(List.of("50% off_shop"), namesOf(ForString.LIKE, "%"));
+        assertEquals(List.of("50% off_shop"), namesOf(ForString.LIKE, "_"));
+        assertEquals(List.of("50% off_shop"), namesOf(ForString.START_WITH, "50%"));
+        assertEquals(List.of("50% off_shop"), namesOf(ForString.END_WITH, "_shop"));
+        assertEquals(List.of(), namesOf(ForString.START_WITH, "5_%"));
+        assertEquals(List.of("DAVE", "alice", "bob", "carol"), namesOf(ForString.NOT_LIKE, "%"));
+    }
+    
+    @Test
+    void matchesEscapeCharacterAsItIsTyped() {
+        assertEquals(List.of(), namesOf(ForString.LIKE, "!%"));
+    }
+    
+    @Test
+    void ignoresCaseOfColumnAndValue() {
+        assertEquals(List.of("DAVE", "alice", "carol"), namesOf(ForString.LIKE_IGNORE_CASE, "A"));
+        assertEquals(List.of("DAVE"), namesOf(ForString.START_WITH_IGNORE_CASE, "dav"));
+        assertEquals(List.of("50% off_shop"), namesOf(ForString.END_WITH_IGNORE_CASE, "_SHOP"));
+    }
+    
+    @Test
+    void ignoresCaseWithUpperStrategy() {
+        SearchCriteria.configIgnoreCase(IgnoreCaseStrategy.UPPER);
+        
+        assertEquals(List.of("DAVE", "alice", "carol"), namesOf(ForString.LIKE_IGNORE_CASE, "a"));
+        assertEquals(List.of("50% off_shop"), namesOf(ForString.START_WITH_IGNORE_CASE, "50% OFF"));
+    }
+}
@@ -0,0 +1,76 @@
+package ananta.api;
+
+import ananta.api.entities.Customer;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.entities.OrderLine;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded H2 database shared by the tests of a JVM, filled once with:
+ * <ul>
+ *     <li>customers 1 "alice", 2 "bob", 3 "carol", 4 "50% off_shop" and 5 "DAVE", the last two without order,</li>
+ *     <li>orders 1 to 12 of customer (id - 1) % 3 + 1, with amount id * 10, price id.00, created on
+ *     2024-01-(id) and status DONE when id % 3 == 0, else PAID when id is even, else NEW,</li>
+ *     <li>id % 3 lines per order, of product p0, p1 and quantity 1, 2.</li>
+ * </ul>
+ * Tests changing rows must restore them.
+ */
+public class TestDatabase {
+    public static final int CUSTOMER_COUNT = 5;
+    public static final int ORDER_COUNT = 12;
+    
+    private static EntityManagerFactory entityManagerFactory;
+    
+    private TestDatabase() {}
+    
+    public static synchronized EntityManagerFactory start() {
+        if (entityManagerFactory == null) {
+            Logger.getLogger("org.hibernate").setLevel(Level.WARNING);
+            entityManagerFactory = Persistence.createEntityManagerFactory("tests");
+            inTransaction(TestDatabase::fill);
+        }
+        SearchCriteria.init(entityManagerFactory);
+        return entityManagerFactory;
+    }
+    
+    public static void inTransaction(final Consumer<EntityManager> action) {
+        final EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            action.accept(entityManager);
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+    
+    private static void fill(final EntityManager entityManager) {
+        final Customer[] customers = {
+            new Customer(1L, "alice"),
+            new Customer(2L, "bob"),
+            new Customer(3L, "carol"),
+            new Customer(4L, "50% off_shop"),
+            new Customer(5L, "DAVE"),
+        };
+        for (final Customer customer : customers) {
+            entityManager.persist(customer);
+        }
+        long lineId = 1;
+        for (int id = 1; id <= ORDER_COUNT; ++id) {
+            final String status = id % 3 == 0 ? "DONE" : (id % 2 == 0 ? "PAID" : "NEW");
+            final CustomerOrder order = new CustomerOrder((long) id, id * 10, status, BigDecimal.valueOf(id, 0).setScale(2), LocalDate.of(2024, 1, id), customers[(id - 1) % 3]);
+            entityManager.persist(order);
+            for (int line = 0; line < id % 3; ++line) {
+                entityManager.persist(new OrderLine(lineId++, "p" + line, line + 1, order));
+            }
+        }
+    }
+}
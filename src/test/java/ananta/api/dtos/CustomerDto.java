@@ -0,0 +1,22 @@
+package ananta.api.dtos;
+
+/**
+ * Immutable dto, created with a constructor expression.
+ */
+public class CustomerDto {
+    private final Long id;
+    private final String name;
+    
+    public CustomerDto(final Long id, final String name) {
+        this.id = id;
+        this.name = name;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+}
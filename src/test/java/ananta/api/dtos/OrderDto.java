@@ -0,0 +1,37 @@
+package ananta.api.dtos;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+public class OrderDto {
+    private Long id;
+    private Integer amount;
+    private String status;
+    private BigDecimal price;
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Integer getAmount() {
+        return amount;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof OrderDto && Objects.equals(id, ((OrderDto) other).id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
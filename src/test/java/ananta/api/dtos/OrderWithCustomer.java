@@ -0,0 +1,37 @@
+package ananta.api.dtos;
+
+import ananta.api.annotations.SelectColumn;
+import ananta.api.annotations.SelectTable;
+
+public class OrderWithCustomer {
+    private Long id;
+    @SelectColumn("customers.name")
+    private String customerName;
+    @SelectTable("customers")
+    private CustomerView customer;
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getCustomerName() {
+        return customerName;
+    }
+    
+    public CustomerView getCustomer() {
+        return customer;
+    }
+    
+    public static class CustomerView {
+        private Long id;
+        private String name;
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ananta.api.dtos;
+
+import ananta.api.annotations.SelectTable;
+
+import java.util.List;
+
+public class OrderWithLines {
+    private Long id;
+    private Integer amount;
+    @SelectTable("lines")
+    private List<LineDto> lines;
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Integer getAmount() {
+        return amount;
+    }
+    
+    public List<LineDto> getLines() {
+        return lines;
+    }
+    
+    public static class LineDto {
+        private String product;
+        private Integer quantity;
+        
+        public String getProduct() {
+            return product;
+        }
+        
+        public Integer getQuantity() {
+            return quantity;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ananta.api.entities;
+
+import ananta.api.models.SearchCacheListener;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.Id;
+import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "customers")
+@EntityListeners(SearchCacheListener.class)
+public class Customer {
+    @Id
+    private Long id;
+    private String name;
+    @OneToMany(mappedBy = "customer")
+    private List<CustomerOrder> orders = new ArrayList<>();
+    
+    public Customer() {}
+    
+    public Customer(final Long id, final String name) {
+        this.id = id;
+        this.name = name;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(final String name) {
+        this.name = name;
+    }
+    
+    public List<CustomerOrder> getOrders() {
+        return orders;
+    }
+}
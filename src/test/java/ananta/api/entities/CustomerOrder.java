@@ -0,0 +1,75 @@
+package ananta.api.entities;
+
+import ananta.api.models.SearchCacheListener;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "orders")
+@EntityListeners(SearchCacheListener.class)
+public class CustomerOrder {
+    @Id
+    private Long id;
+    private Integer amount;
+    @Column(name = "status_code")
+    private String status;
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
+    @Column(name = "created_on")
+    private LocalDate createdOn;
+    @ManyToOne
+    @JoinColumn(name = "customer_id")
+    private Customer customer;
+    @OneToMany(mappedBy = "order")
+    private List<OrderLine> lines = new ArrayList<>();
+    
+    public CustomerOrder() {}
+    
+    public CustomerOrder(final Long id, final Integer amount, final String status, final BigDecimal price, final LocalDate createdOn, final Customer customer) {
+        this.id = id;
+        this.amount = amount;
+        this.status = status;
+        this.price = price;
+        this.createdOn = createdOn;
+        this.customer = customer;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Integer getAmount() {
+        return amount;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public LocalDate getCreatedOn() {
+        return createdOn;
+    }
+    
+    public Customer getCustomer() {
+        return customer;
+    }
+    
+    public List<OrderLine> getLines() {
+        return lines;
+    }
+}
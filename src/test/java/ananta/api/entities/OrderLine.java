@@ -0,0 +1,40 @@
+package ananta.api.entities;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "order_lines")
+public class OrderLine {
+    @Id
+    private Long id;
+    private String product;
+    private Integer quantity;
+    @ManyToOne
+    @JoinColumn(name = "order_id")
+    private CustomerOrder order;
+    
+    public OrderLine() {}
+    
+    public OrderLine(final Long id, final String product, final Integer quantity, final CustomerOrder order) {
+        this.id = id;
+        this.product = product;
+        this.quantity = quantity;
+        this.order = order;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getProduct() {
+        return product;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+}
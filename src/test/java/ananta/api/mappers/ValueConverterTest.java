@@ -0,0 +1,44 @@
+package ananta.api.mappers;
+
+import ananta.api.models.QueryException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValueConverterTest {
+    
+    @Test
+    void narrowsNumbersWhichFit() {
+        assertEquals(42, ValueConverter.convert(Integer.class, 42L));
+        assertEquals(42L, ValueConverter.convert(Long.class, new BigDecimal("42.00")));
+        assertEquals((short) 42, ValueConverter.convert(Short.class, 42));
+        assertEquals((byte) -1, ValueConverter.convert(Byte.class, -1L));
+        assertEquals(BigInteger.TEN, ValueConverter.convert(BigInteger.class, new BigDecimal("10.0")));
+        assertEquals(new BigDecimal("1.5"), ValueConverter.convert(BigDecimal.class, 1.5d));
+    }
+    
+    @Test
+    void refusesNumbersWhichOverflow() {
+        assertThrows(QueryException.class, () -> ValueConverter.convert(Integer.class, Integer.MAX_VALUE + 1L));
+        assertThrows(QueryException.class, () -> ValueConverter.convert(Long.class, new BigInteger("9223372036854775808")));
+        assertThrows(QueryException.class, () -> ValueConverter.convert(Short.class, 40_000));
+        assertThrows(QueryException.class, () -> ValueConverter.convert(Byte.class, 128));
+    }
+    
+    @Test
+    void refusesNumbersWithFractionalPart() {
+        assertThrows(QueryException.class, () -> ValueConverter.convert(Long.class, new BigDecimal("1.5")));
+        assertThrows(QueryException.class, () -> ValueConverter.convert(Integer.class, 2.25d));
+        assertThrows(QueryException.class, () -> ValueConverter.convert(BigInteger.class, new BigDecimal("0.1")));
+    }
+    
+    @Test
+    void refusesNumbersWhichAreNotFinite() {
+        assertThrows(QueryException.class, () -> ValueConverter.convert(Long.class, Double.NaN));
+        assertThrows(QueryException.class, () -> ValueConverter.convert(BigDecimal.class, Double.POSITIVE_INFINITY));
+    }
+}
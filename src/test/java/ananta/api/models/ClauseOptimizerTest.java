@@ -0,0 +1,117 @@
+package ananta.api.models;
+
+import ananta.api.SearchCriteria;
+import ananta.api.TestDatabase;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.statics.ForAll;
+import ananta.api.statics.ForCollection;
+import ananta.api.statics.ForNumber;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClauseOptimizerTest {
+    
+    private static QueryClause and(final WhereClause clause) {
+        return QueryClause.builder().isAndClause(true).clause(clause).build();
+    }
+    
+    private static QueryClause or(final WhereClause clause) {
+        return QueryClause.builder().isAndClause(false).clause(clause).build();
+    }
+    
+    private static WhereClause equal(final String column, final Object value) {
+        return WhereClauseForAll.builder().table(TableJoin.of(column)).action(ForAll.EQUAL).value(value).build();
+    }
+    
+    private static WhereClause bound(final String column, final ForNumber action, final Comparable<?> value) {
+        return WhereClauseForNumber.builder().table(TableJoin.of(column)).action(action).value(value).build();
+    }
+    
+    @Test
+    void comparesEqualValuesLikeTheDatabase() {
+        final Optional<List<QueryClause>> clauses = ClauseOptimizer.optimize(List.of(
+            and(equal("price", new BigDecimal("1.0"))),
+            and(equal("price", new BigDecimal("1.00")))
+        ));
+        
+        assertTrue(clauses.isPresent());
+        assertEquals(Optional.empty(), ClauseOptimizer.optimize(List.of(and(equal("amount", 10)), and(equal("amount", 20)))));
+    }
+    
+    @Test
+    void leavesStringsAndFloatsToTheDatabase() {
+        assertEquals(2, ClauseOptimizer.optimize(List.of(and(equal("status", "new")), and(equal("status", "NEW")))).orElseThrow().size());
+        assertEquals(2, ClauseOptimizer.optimize(List.of(and(equal("ratio", 0.0)), and(equal("ratio", -0.0)))).orElseThrow().size());
+        assertEquals(2, ClauseOptimizer.optimize(List.of(
+            and(bound("status", ForNumber.LARGER_THAN, "a")),
+            and(bound("status", ForNumber.LARGER_THAN, "B"))
+        )).orElseThrow().size());
+    }
+    
+    @Test
+    void keepsTightestBoundsJoinedByAnd() {
+        final List<QueryClause> clauses = ClauseOptimizer.optimize(List.of(
+            and(bound("amount", ForNumber.LARGER_THAN, 10)),
+            and(bound("amount", ForNumber.LARGER_THAN_OR_EQUAL, 20)),
+            and(bound("amount", ForNumber.LESS_THAN, 50)),
+            and(bound("amount", ForNumber.LESS_THAN_OR_EQUAL, 50))
+        )).orElseThrow();
+        
+        assertEquals(2, clauses.size());
+        assertEquals(20, clauses.get(0).getClause().getValue());
+        assertEquals(ForNumber.LESS_THAN, ((WhereClauseForNumber) clauses.get(1).getClause()).getAction());
+    }
+    
+    @Test
+    void findsBoundsThatCantMatch() {
+        assertEquals(Optional.empty(), ClauseOptimizer.optimize(List.of(
+            and(bound("amount", ForNumber.LARGER_THAN, 50)),
+            and(bound("amount", ForNumber.LESS_THAN_OR_EQUAL, 50))
+        )));
+        assertEquals(Optional.empty(), ClauseOptimizer.optimize(List.of(
+            and(WhereClauseForNumber.builder().table(TableJoin.of("amount")).action(ForNumber.BETWEEN).value(20).toValue(10).build())
+        )));
+    }
+    
+    @Test
+    void mergesEqualsJoinedByOrIntoOneIn() {
+        final List<QueryClause> clauses = ClauseOptimizer.optimize(List.of(
+            or(equal("status", "NEW")),
+            or(equal("status", "PAID")),
+            or(WhereClauseForCollection.builder().table(TableJoin.of("status")).action(ForCollection.IN).value(List.of("DONE", "NEW")).build())
+        )).orElseThrow();
+        
+        assertEquals(1, clauses.size());
+        assertEquals(Set.of("NEW", "PAID", "DONE"), Set.copyOf((Collection<?>) clauses.get(0).getClause().getValue()));
+    }
+    
+    @Test
+    void dropsClausesThatCantMatchJoinedByOr() {
+        final List<QueryClause> clauses = ClauseOptimizer.optimize(List.of(
+            or(equal("status", "NEW")),
+            or(WhereClauseForCollection.builder().table(TableJoin.of("id")).action(ForCollection.IN).value(List.of()).build())
+        )).orElseThrow();
+        
+        assertEquals(1, clauses.size());
+    }
+    
+    @Test
+    void matchesEqualDecimalsOfDifferentScale() {
+        TestDatabase.start();
+        
+        final long count = SearchCriteria.selectFrom(CustomerOrder.class)
+            .where("price", ForAll.EQUAL, new BigDecimal("1.0"))
+            .and("price", ForAll.EQUAL, new BigDecimal("1.00"))
+            .count();
+        
+        assertEquals(1, count);
+    }
+}
@@ -0,0 +1,28 @@
+package ananta.api.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpiringCacheTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+    
+    @Test
+    void tellsListenerAboutRemovedAndEvictedKeys() {
+        final List<String> removedKeys = new ArrayList<>();
+        final ExpiringCache<String, Integer> cache = new ExpiringCache<>(TTL, 2);
+        cache.onRemoval(removedKeys::add);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.remove("b");
+        cache.remove("unknown");
+        
+        assertEquals(List.of("a", "b"), removedKeys);
+        assertEquals(1, cache.size());
+    }
+}
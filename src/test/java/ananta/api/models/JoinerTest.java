@@ -0,0 +1,49 @@
+package ananta.api.models;
+
+import ananta.api.entities.Customer;
+import ananta.api.entities.CustomerOrder;
+import ananta.api.entities.OrderLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JoinerTest {
+    
+    @SuppressWarnings("rawtypes")
+    private List untypedOrders;
+    
+    @Test
+    void writesJoinsFromTheFieldsOfTheirParent() {
+        final Joiner joiner = new Joiner();
+        joiner.add(JoinPoint.builder().tableName("customers").clazz(Customer.class).build());
+        joiner.add(JoinPoint.builder().tableName("orders").clazz(CustomerOrder.class).build());
+        joiner.add(JoinPoint.builder().tableName("order_lines").clazz(OrderLine.class).build());
+        
+        assertEquals("from Customer customers join customers.orders orders join orders.lines order_lines", joiner.toJpql());
+    }
+    
+    @Test
+    void joinsTablesAfterFetchFromTheLastJoinedTable() throws NoSuchFieldException {
+        final Joiner joiner = new Joiner();
+        joiner.add(JoinPoint.builder().tableName("orders").clazz(CustomerOrder.class).build());
+        joiner.add(JoinPoint.builder().tableName("lines").field(CustomerOrder.class.getDeclaredField("lines")).parentTableName("orders").isFetched(true).build());
+        assertEquals("orders", joiner.getLast().getTableName());
+        
+        joiner.add(JoinPoint.builder().tableName("customers").clazz(Customer.class).build());
+        assertEquals("from CustomerOrder orders left join fetch orders.lines lines join orders.customer customers", joiner.toJpql());
+    }
+    
+    @Test
+    void explainsJoinsFromTableOfUnknownType() throws NoSuchFieldException {
+        final Joiner joiner = new Joiner();
+        joiner.add(JoinPoint.builder().tableName("customers").clazz(Customer.class).build());
+        joiner.add(JoinPoint.builder().tableName("orders").field(JoinerTest.class.getDeclaredField("untypedOrders")).build());
+        joiner.add(JoinPoint.builder().tableName("order_lines").clazz(OrderLine.class).build());
+        
+        final QueryException exception = assertThrows(QueryException.class, joiner::toJpql);
+        assertEquals("Can't find the table to join OrderLine from.", exception.getMessage());
+    }
+}